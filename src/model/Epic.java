@@ -2,7 +2,6 @@ package model;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.HashSet;
 
@@ -81,8 +80,7 @@ public class Epic extends Task {
      * @param epic объект
      */
     public Epic(Epic epic) {
-        super(epic.getName(), epic.getDescription(), epic.getStatus());
-        super.setId(epic.getId());
+        super(epic);
         subTasksId = new HashSet<>();
         subTasksId.addAll(epic.getSubtasksId());
         endTime = epic.endTime;
@@ -160,20 +158,4 @@ public class Epic extends Task {
                 ", endTime=" + getEndTime() +
                 "}";
     }
-
-    @Override
-    public String toCsvString() {
-        String startTime = getStartTime() != null ? "" + getStartTime().toInstant(ZoneOffset.UTC).toEpochMilli() : "";
-        String duration = getDuration() != null ? "" + getDuration().toMinutes() : "";
-        String endTime = getEndTime() != null ? "" + getEndTime().toInstant(ZoneOffset.UTC).toEpochMilli() : "";
-
-        return "EPIC," +
-                getId() + "," +
-                getName() + "," +
-                getDescription() + "," +
-                getStatus() + "," + "," +
-                startTime + "," +
-                duration + "," +
-                endTime + "\n";
-    }
 }
@@ -2,7 +2,6 @@ package model;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 
 public class Subtask extends Task {
     private int epicId;
@@ -73,6 +72,16 @@ public class Subtask extends Task {
         this.epicId = epicId;
     }
 
+    /**
+     * Конструктор для глубокого копирования объекта
+     *
+     * @param subtask объект
+     */
+    public Subtask(Subtask subtask) {
+        super(subtask);
+        this.epicId = subtask.getEpicId();
+    }
+
     @Override
     public TaskType getType() {
         return TaskType.SUBTASK;
@@ -117,19 +126,4 @@ public class Subtask extends Task {
                 ", duration=" + getDuration() +
                 '}';
     }
-
-    @Override
-    public String toCsvString() {
-        String startTime = getStartTime() != null ? "" + getStartTime().toInstant(ZoneOffset.UTC).toEpochMilli() : "";
-        String duration = getDuration() != null ? "" + getDuration().toMinutes() : "";
-
-        return "SUBTASK," +
-                getId() + "," +
-                getName() + "," +
-                getDescription() + "," +
-                getStatus() + "," +
-                epicId + "," +
-                startTime + "," +
-                duration + ",\n";
-    }
 }
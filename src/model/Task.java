@@ -1,8 +1,12 @@
 package model;
 
+import utils.CsvWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.Objects;
 
 public class Task {
@@ -210,17 +214,20 @@ public class Task {
                 '}';
     }
 
+    /**
+     * Представление задачи строкой файла CSV с переводом строки в конце, формат как при сохранении менеджера.
+     * Для записи многих задач лучше {@link CsvWriter}: он пишет в поток без строки на каждую задачу
+     *
+     * @return строка файла CSV
+     */
     public String toCsvString() {
-        String startTime = getStartTime() != null ? "" + getStartTime().toInstant(ZoneOffset.UTC).toEpochMilli() : "";
-        String duration = getDuration() != null ? "" + getDuration().toMinutes() : "";
-
-        return "TASK," +
-                getId() + "," +
-                getName() + "," +
-                getDescription() + "," +
-                getStatus() + "," + "," +
-                startTime + "," +
-                duration + ",\n";
+        StringWriter stringWriter = new StringWriter();
+        try (CsvWriter csvWriter = new CsvWriter(stringWriter)) {
+            csvWriter.writeTask(this);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // запись в память не выбрасывает IOException
+        }
+        return stringWriter.toString();
     }
 
     /**
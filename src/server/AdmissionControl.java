@@ -0,0 +1,175 @@
+package server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничение количества одновременно выполняемых запросов: общее для сервера и отдельное для путей
+ * (например, для тяжелых /batch и /import). Запрос ждет свободного места не дольше времени ожидания,
+ * считая и время в очереди исполнителя сервера, а если места нет - сразу получает ответ 503 с заголовком
+ * Retry-After. Так при всплеске нагрузки время ответа остается ограниченным, а не растет вместе с очередью.
+ * Настройки задаются до запуска сервера.
+ */
+public final class AdmissionControl {
+    public static final Duration DEFAULT_QUEUE_TIMEOUT = Duration.ofMillis(100);
+    public static final int DEFAULT_RETRY_AFTER = 1; // секунд до повторного запроса в ответе 503
+    public static final AdmissionControl DISABLED = new AdmissionControl();
+    // время постановки запроса в очередь исполнителя для потока, который его выполняет
+    private static final ThreadLocal<Long> ARRIVAL_TIME = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final Semaphore inFlight; // свободные места для запросов всего сервера
+    private final Map<String, Semaphore> pathInFlight = new HashMap<>(); // свободные места по путям контекстов
+    private final long queueTimeout; // максимальное время ожидания в наносекундах
+    private final int retryAfter;
+    private final LongAdder rejected = new LongAdder(); // количество отклоненных запросов
+
+    /**
+     * Конструктор ограничения запросов
+     *
+     * @param maxInFlight  максимальное количество одновременно выполняемых запросов
+     * @param queueTimeout максимальное время ожидания запроса до начала выполнения
+     * @param retryAfter   секунд до повторного запроса для отклоненных клиентов
+     */
+    public AdmissionControl(int maxInFlight, Duration queueTimeout, int retryAfter) {
+        if (maxInFlight <= 0) throw new IllegalArgumentException("Max in-flight requests must be positive: "
+                + maxInFlight);
+        if (retryAfter < 0) throw new IllegalArgumentException("Retry-After must not be negative: " + retryAfter);
+        enabled = true;
+        inFlight = new Semaphore(maxInFlight);
+        this.queueTimeout = queueTimeout.toNanos();
+        this.retryAfter = retryAfter;
+    }
+
+    public AdmissionControl(int maxInFlight) {
+        this(maxInFlight, DEFAULT_QUEUE_TIMEOUT, DEFAULT_RETRY_AFTER);
+    }
+
+    private AdmissionControl() {
+        enabled = false;
+        inFlight = null;
+        queueTimeout = 0;
+        retryAfter = 0;
+    }
+
+    /**
+     * Отдельное ограничение для запросов контекста сервера (в дополнение к общему)
+     *
+     * @param contextPath путь контекста, например, "/batch"
+     * @param maxInFlight максимальное количество одновременно выполняемых запросов контекста
+     * @return эти же настройки
+     */
+    public AdmissionControl withLimit(String contextPath, int maxInFlight) {
+        if (!enabled) throw new IllegalStateException("Admission control is disabled.");
+        if (maxInFlight <= 0) throw new IllegalArgumentException("Max in-flight requests must be positive: "
+                + maxInFlight);
+        pathInFlight.put(contextPath, new Semaphore(maxInFlight));
+        return this;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Фильтр ограничения запросов для контекста сервера
+     *
+     * @param contextPath путь контекста
+     * @return фильтр
+     */
+    Filter filter(String contextPath) {
+        return new AdmissionFilter(pathInFlight.get(contextPath));
+    }
+
+    /**
+     * Исполнитель, который запоминает время постановки запроса в очередь, чтобы время ожидания учитывало
+     * и очередь исполнителя (для пула потоков она не ограничена)
+     *
+     * @param executor исполнитель запросов сервера
+     * @return исполнитель с учетом времени в очереди
+     */
+    static Executor trackQueueTime(Executor executor) {
+        return command -> {
+            long arrivalTime = System.nanoTime();
+            executor.execute(() -> {
+                ARRIVAL_TIME.set(arrivalTime);
+                try {
+                    command.run();
+                } finally {
+                    ARRIVAL_TIME.remove();
+                }
+            });
+        };
+    }
+
+    private class AdmissionFilter extends Filter {
+        private final Semaphore contextInFlight; // ограничение контекста или null
+
+        AdmissionFilter(Semaphore contextInFlight) {
+            this.contextInFlight = contextInFlight;
+        }
+
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            Long arrivalTime = ARRIVAL_TIME.get();
+            long deadline = (arrivalTime == null ? System.nanoTime() : arrivalTime) + queueTimeout;
+            // сначала место в контексте: запрос, ждущий тяжелый контекст, не занимает общее место
+            if (contextInFlight != null && !acquire(contextInFlight, deadline)) {
+                reject(exchange);
+                return;
+            }
+            try {
+                if (!acquire(inFlight, deadline)) {
+                    reject(exchange);
+                    return;
+                }
+                try {
+                    chain.doFilter(exchange);
+                } finally {
+                    inFlight.release();
+                }
+            } finally {
+                if (contextInFlight != null) contextInFlight.release();
+            }
+        }
+
+        @Override
+        public String description() {
+            return "Limits in-flight requests and rejects the excess with 503";
+        }
+
+        // запрос, который уже прождал в очереди исполнителя дольше времени ожидания, не выполняется,
+        // даже если место есть - так очередь после всплеска разбирается быстрее
+        private boolean acquire(Semaphore semaphore, long deadline) {
+            long timeout = deadline - System.nanoTime();
+            if (timeout < 0) return false;
+            if (semaphore.tryAcquire()) return true;
+            try {
+                return semaphore.tryAcquire(timeout, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void reject(HttpExchange exchange) throws IOException {
+            rejected.increment();
+            exchange.getResponseHeaders().set("Retry-After", Integer.toString(retryAfter));
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package server;
+
+import com.sun.net.httpserver.Headers;
+
+import java.util.List;
+
+/**
+ * Настройки сжатия ответов сервера gzip: ответы JSON сжимаются, если клиент принимает gzip
+ * (заголовок Accept-Encoding) и размер ответа больше порога
+ */
+public final class Compression {
+    public static final int DEFAULT_THRESHOLD = 1024; // ответы меньшего размера не сжимаются - выигрыша почти нет
+    public static final int DEFAULT_LEVEL = 6; // уровень сжатия по умолчанию, как у zlib
+    public static final Compression DEFAULT = new Compression(DEFAULT_THRESHOLD, DEFAULT_LEVEL);
+    public static final Compression DISABLED = new Compression();
+
+    private final boolean enabled;
+    private final int threshold; // минимальный размер ответа в байтах для сжатия
+    private final int level; // уровень сжатия от 1 (быстрее) до 9 (меньше)
+
+    /**
+     * Конструктор настроек сжатия
+     *
+     * @param threshold минимальный размер ответа в байтах, начиная с которого ответ сжимается
+     * @param level     уровень сжатия от 1 (быстрее) до 9 (меньше)
+     */
+    public Compression(int threshold, int level) {
+        if (threshold < 0) throw new IllegalArgumentException("Compression threshold must not be negative: "
+                + threshold);
+        if (level < 1 || level > 9) throw new IllegalArgumentException("Compression level must be 1..9: " + level);
+        this.enabled = true;
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    private Compression() {
+        enabled = false;
+        threshold = 0;
+        level = 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Проверка, что ответ на запрос можно сжать: сжатие включено и клиент принимает gzip
+     *
+     * @param requestHeaders заголовки запроса
+     * @return true, если ответ можно сжать
+     */
+    public boolean isAcceptedBy(Headers requestHeaders) {
+        if (!enabled) return false;
+        List<String> acceptEncodings = requestHeaders.get("Accept-Encoding");
+        if (acceptEncodings == null) return false;
+        for (String acceptEncoding : acceptEncodings) {
+            for (String coding : acceptEncoding.split(",")) {
+                // кодировка с весом, например "gzip;q=0.5", вес 0 означает, что кодировка не принимается
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) continue;
+                if (parts.length == 1 || !isZeroWeight(parts[1].trim())) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroWeight(String parameter) {
+        if (!parameter.startsWith("q=")) return false;
+        try {
+            return Double.parseDouble(parameter.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+            return true; // непонятный вес - считаем, что кодировка не принимается
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package server;
 
 public enum ContentTypes {
-    JSON("application/json");
+    JSON("application/json"),
+    BINARY("application/x-task-binary"), // двоичный формат задач utils.BinaryTaskWriter
+    EVENT_STREAM("text/event-stream");
 
     private final String contentType;
 
@@ -1,9 +0,0 @@
-package server;
-
-public enum EndpointGroups {
-    TASKS,
-    SUBTASKS,
-    EPICS,
-    HISTORY,
-    PRIORITIZED
-}
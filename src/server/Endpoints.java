@@ -1,25 +0,0 @@
-package server;
-
-public enum Endpoints {
-    GET_TASKS,
-    GET_TASK_BY_ID,
-    POST_TASK,
-    DELETE_TASK,
-
-    GET_SUBTASKS,
-    GET_SUBTASK_BY_ID,
-    POST_SUBTASK,
-    DELETE_SUBTASK,
-
-    GET_EPICS,
-    GET_EPIC_BY_ID,
-    GET_EPIC_SUBTASKS,
-    POST_EPIC,
-    DELETE_EPIC,
-
-    GET_HISTORY,
-
-    GET_PRIORITIZED_TASKS,
-
-    UNKNOWN
-}
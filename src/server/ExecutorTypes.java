@@ -0,0 +1,27 @@
+package server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Варианты выполнения запросов сервером
+ */
+public enum ExecutorTypes {
+    DEFAULT, // все запросы выполняются по очереди в единственном потоке-диспетчере HttpServer
+    FIXED_POOL, // пул потоков фиксированного размера
+    VIRTUAL_THREADS; // отдельный виртуальный поток на каждый запрос
+
+    /**
+     * Создание исполнителя запросов для HttpServer
+     *
+     * @return исполнитель или null для DEFAULT, тогда HttpServer выполняет запросы в потоке-диспетчере
+     */
+    public ExecutorService newExecutor() {
+        return switch (this) {
+            case DEFAULT -> null;
+            // потоков вдвое больше ядер: пока одни потоки ждут запись файла или сеть, другие заняты запросами
+            case FIXED_POOL -> Executors.newFixedThreadPool(2 * Runtime.getRuntime().availableProcessors());
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+    }
+}
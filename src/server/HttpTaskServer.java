@@ -1,35 +1,97 @@
 package server;
 
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpServer;
 import model.Epic;
 import model.Subtask;
 import model.Task;
 import server.handlers.*;
+import service.ConcurrentTaskManager;
+import service.InMemoryTaskManager;
 import service.Managers;
+import service.SessionHistoryManager;
 import service.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 public class HttpTaskServer {
     public static final int PORT = 8080;
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
     private final HttpServer server;
     private final TaskManager manager;
+    private final ExecutorService executor; // исполнитель запросов, null - поток-диспетчер HttpServer
+    private final List<HttpContext> contexts; // обработчики закрываются при остановке: потоки событий, подписки кэшей
 
     public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, ServerSettings.DEFAULT);
+    }
+
+    /**
+     * Конструктор сервера с настройками
+     * при выполнении запросов параллельно (FIXED_POOL и VIRTUAL_THREADS) менеджер задач должен быть
+     * потокобезопасным (например, {@link service.ConcurrentTaskManager})
+     *
+     * @param manager  менеджер задач
+     * @param settings настройки сервера: история по сессиям, исполнитель запросов, сжатие и ограничение запросов
+     * @throws IOException возможное исключение при создании сервера
+     */
+    public HttpTaskServer(TaskManager manager, ServerSettings settings) throws IOException {
+        AdmissionControl admissionControl = settings.getAdmissionControl();
         this.manager = manager;
         server = HttpServer.create(new InetSocketAddress(PORT), 0);
-        server.createContext("/tasks", new TasksHandler(manager));
-        server.createContext("/subtasks", new SubtasksHandler(manager));
-        server.createContext("/epics", new EpicsHandler(manager));
-        server.createContext("/history", new HistoryHandler(manager));
-        server.createContext("/prioritized", new PrioritizedHandler(manager));
+        executor = settings.getExecutorType().newExecutor();
+        // для ограничения запросов учитывается и время ожидания в очереди исполнителя
+        server.setExecutor(executor != null && admissionControl.isEnabled()
+                ? AdmissionControl.trackQueueTime(executor) : executor);
+        contexts = List.of(
+                server.createContext("/tasks", new TasksHandler(manager)),
+                server.createContext("/subtasks", new SubtasksHandler(manager)),
+                server.createContext("/epics", new EpicsHandler(manager)),
+                server.createContext("/history", new HistoryHandler(manager)),
+                server.createContext("/prioritized", new PrioritizedHandler(manager)),
+                server.createContext("/import", new ImportHandler(manager)),
+                server.createContext("/batch", new BatchHandler(manager)),
+                server.createContext("/events", new EventsHandler(manager)),
+                server.createContext("/changes", new ChangesHandler(manager)));
+        contexts.forEach(context -> ((BaseHttpHandler) context.getHandler()).setCompression(settings.getCompression()));
+        if (admissionControl.isEnabled()) {
+            // ограничение - первый фильтр: отклоненный запрос не проходит остальные фильтры
+            contexts.forEach(context -> context.getFilters().add(admissionControl.filter(context.getPath())));
+        }
+        if (settings.getSessionHistory() != null) {
+            SessionFilter sessionFilter = new SessionFilter(settings.getSessionHistory());
+            contexts.forEach(context -> context.getFilters().add(sessionFilter));
+        }
+    }
+
+    /**
+     * Включение TCP_NODELAY для всех HttpServer процесса (свойство JVM sun.net.httpserver.nodelay, которое можно
+     * задать и при запуске: -Dsun.net.httpserver.nodelay=true), если оно не задано явно.
+     * Без него каждый ответ (заголовки и тело пишутся отдельно) ждет подтверждения от клиента ~40 мс, и сервер
+     * упирается в задержку, а не в процессор. Свойство читается при создании первого HttpServer в процессе,
+     * поэтому вызывать нужно до этого; свойство общее для всего процесса, поэтому его задает приложение, а не сервер
+     */
+    public static void enableTcpNoDelay() {
+        if (System.getProperty(NODELAY_PROPERTY) == null) System.setProperty(NODELAY_PROPERTY, "true");
     }
 
     public static void main(String[] args) throws IOException {
-        HttpTaskServer httpServer = new HttpTaskServer(Managers.getDefault());
+        enableTcpNoDelay();
+        // история просмотров ведется отдельно для каждого клиента: до 10 задач в сессии, до 10000 сессий
+        SessionHistoryManager sessionHistory = Managers.getSessionHistory(10, 10_000, Duration.ofMinutes(30));
+        // вариант выполнения запросов можно указать первым аргументом: DEFAULT, FIXED_POOL или VIRTUAL_THREADS
+        ExecutorTypes executorType = args.length > 0 ? ExecutorTypes.valueOf(args[0]) : ExecutorTypes.VIRTUAL_THREADS;
+        // не больше 256 запросов одновременно, пакеты и импорт - не больше 4 одновременно
+        AdmissionControl admissionControl = new AdmissionControl(256).withLimit("/batch", 4).withLimit("/import", 4);
+        HttpTaskServer httpServer = new HttpTaskServer(new ConcurrentTaskManager(
+                new InMemoryTaskManager(sessionHistory)), ServerSettings.DEFAULT.withSessionHistory(sessionHistory)
+                .withExecutorType(executorType).withAdmissionControl(admissionControl));
 
         Task task;
         Epic epic;
@@ -60,11 +122,13 @@ public class HttpTaskServer {
         httpServer.manager.addEpic(epic); // id будет = 7
 
         httpServer.start();
-        System.out.println("HTTP-сервер запущен на " + PORT + " порту!");
+        System.out.println("HTTP-сервер запущен на " + PORT + " порту, выполнение запросов: " + executorType + "!");
     }
 
     public void stop() {
+        contexts.forEach(context -> ((BaseHttpHandler) context.getHandler()).close());
         server.stop(0);
+        if (executor != null) executor.shutdown();
     }
 
     public void start() {
@@ -0,0 +1,142 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Таблица маршрутов обработчика: шаблоны путей вида "/epics/{id}/subtasks" разбираются один раз при добавлении
+ * маршрута, а путь запроса сравнивается с ними прямо в строке, без разбиения на части и создания новых строк,
+ * числовой ID из пути сразу передается в метод маршрута
+ */
+public class Router {
+    public static final int NO_ID = -1; // ID для маршрутов без {id} в шаблоне
+    private static final String ID_PARAMETER = "{id}";
+    private static final long NO_MATCH = Long.MIN_VALUE; // путь не подходит к шаблону маршрута
+
+    private final List<Route> routes = new ArrayList<>();
+
+    /**
+     * Метод обработки маршрута без ID
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Метод обработки маршрута с ID из пути
+     */
+    @FunctionalInterface
+    public interface IdHandler {
+        void handle(HttpExchange exchange, int id) throws IOException;
+    }
+
+    /**
+     * Добавление маршрута без ID
+     *
+     * @param method  метод запроса (GET, POST, DELETE)
+     * @param pattern шаблон пути, например, "/tasks"
+     * @param handler метод обработки запроса
+     * @return таблица маршрутов для добавления следующих маршрутов
+     */
+    public Router add(String method, String pattern, Handler handler) {
+        Route route = new Route(method, pattern, (exchange, id) -> handler.handle(exchange));
+        if (route.hasId) throw new IllegalArgumentException("Pattern with {id} needs IdHandler: " + pattern);
+        routes.add(route);
+        return this;
+    }
+
+    /**
+     * Добавление маршрута с ID
+     *
+     * @param method  метод запроса (GET, POST, DELETE)
+     * @param pattern шаблон пути с одним {id}, например, "/tasks/{id}"
+     * @param handler метод обработки запроса
+     * @return таблица маршрутов для добавления следующих маршрутов
+     */
+    public Router add(String method, String pattern, IdHandler handler) {
+        Route route = new Route(method, pattern, handler);
+        if (!route.hasId) throw new IllegalArgumentException("Pattern without {id}: " + pattern);
+        routes.add(route);
+        return this;
+    }
+
+    /**
+     * Поиск маршрута запроса и вызов его метода
+     *
+     * @param exchange - объект класса HttpExchange для обмена данными
+     * @return - false, если маршрут не найден и ответ не отправлен
+     * @throws IOException - возможное исключение метода маршрута
+     */
+    public boolean dispatch(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getRawPath(); // в отличие от getPath() не создает новую строку
+        for (Route route : routes) {
+            if (!route.method.equals(method)) continue;
+            long id = route.match(path);
+            if (id == NO_MATCH) continue;
+            route.handler.handle(exchange, (int) id);
+            return true;
+        }
+        return false;
+    }
+
+    // маршрут: литералы шаблона по сегментам пути, null - место {id}
+    private static class Route {
+        final String method;
+        final String[] segments;
+        final boolean hasId;
+        final IdHandler handler;
+
+        Route(String method, String pattern, IdHandler handler) {
+            if (!pattern.startsWith("/")) throw new IllegalArgumentException("Pattern must start with /: " + pattern);
+            this.method = method;
+            this.handler = handler;
+            segments = pattern.substring(1).split("/");
+            int ids = 0;
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].equals(ID_PARAMETER)) {
+                    segments[i] = null;
+                    ids++;
+                } else if (segments[i].isEmpty() || segments[i].indexOf('{') >= 0) {
+                    throw new IllegalArgumentException("Wrong pattern: " + pattern);
+                }
+            }
+            if (ids > 1) throw new IllegalArgumentException("Pattern must have at most one {id}: " + pattern);
+            hasId = ids == 1;
+        }
+
+        // сравнение пути с шаблоном, возвращает ID из пути, NO_ID без {id} или NO_MATCH
+        long match(String path) {
+            int length = path.length();
+            if (length > 1 && path.charAt(length - 1) == '/') length--; // завершающий / не учитывается
+            int position = 0;
+            long id = NO_ID;
+            for (String segment : segments) {
+                if (position >= length || path.charAt(position) != '/') return NO_MATCH;
+                position++;
+                if (segment != null) {
+                    if (!path.startsWith(segment, position)) return NO_MATCH;
+                    position += segment.length();
+                    if (position < length && path.charAt(position) != '/') return NO_MATCH;
+                    continue;
+                }
+                // {id} - только цифры, не больше Integer.MAX_VALUE
+                int start = position;
+                long value = 0;
+                while (position < length && path.charAt(position) != '/') {
+                    char c = path.charAt(position++);
+                    if (c < '0' || c > '9') return NO_MATCH;
+                    value = value * 10 + (c - '0');
+                    if (value > Integer.MAX_VALUE) return NO_MATCH;
+                }
+                if (position == start) return NO_MATCH;
+                id = value;
+            }
+            return position == length ? id : NO_MATCH;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package server;
+
+import service.SessionHistoryManager;
+
+/**
+ * Настройки сервера задач: история просмотров по сессиям, исполнитель запросов, сжатие ответов и ограничение
+ * запросов. Настройки неизменяемые, каждый метод with... возвращает копию с одной измененной настройкой:
+ * ServerSettings.DEFAULT.withExecutorType(ExecutorTypes.VIRTUAL_THREADS).withCompression(Compression.DISABLED)
+ */
+public final class ServerSettings {
+    public static final ServerSettings DEFAULT = new ServerSettings(null, ExecutorTypes.DEFAULT, Compression.DEFAULT,
+            AdmissionControl.DISABLED);
+
+    private final SessionHistoryManager sessionHistory; // история по сессиям, null - общая история
+    private final ExecutorTypes executorType; // вариант выполнения запросов
+    private final Compression compression; // настройки сжатия ответов gzip
+    private final AdmissionControl admissionControl; // ограничение одновременно выполняемых запросов
+
+    private ServerSettings(SessionHistoryManager sessionHistory, ExecutorTypes executorType, Compression compression,
+                           AdmissionControl admissionControl) {
+        if (executorType == null) throw new IllegalArgumentException("Executor type is null.");
+        if (compression == null) throw new IllegalArgumentException("Compression is null.");
+        if (admissionControl == null) throw new IllegalArgumentException("Admission control is null.");
+        this.sessionHistory = sessionHistory;
+        this.executorType = executorType;
+        this.compression = compression;
+        this.admissionControl = admissionControl;
+    }
+
+    /**
+     * История просмотров по сессиям клиентов, сессия берется из заголовка X-Session-Id
+     *
+     * @param sessionHistory история просмотров менеджера по сессиям, null - общая история для всех клиентов
+     * @return настройки с заданной историей
+     */
+    public ServerSettings withSessionHistory(SessionHistoryManager sessionHistory) {
+        return new ServerSettings(sessionHistory, executorType, compression, admissionControl);
+    }
+
+    /**
+     * Вариант выполнения запросов
+     * для FIXED_POOL и VIRTUAL_THREADS запросы выполняются параллельно, поэтому менеджер задач должен быть
+     * потокобезопасным (например, {@link service.ConcurrentTaskManager})
+     *
+     * @param executorType вариант выполнения запросов
+     * @return настройки с заданным исполнителем
+     */
+    public ServerSettings withExecutorType(ExecutorTypes executorType) {
+        return new ServerSettings(sessionHistory, executorType, compression, admissionControl);
+    }
+
+    /**
+     * Сжатие ответов
+     *
+     * @param compression настройки сжатия ответов gzip, Compression.DISABLED - без сжатия
+     * @return настройки с заданным сжатием
+     */
+    public ServerSettings withCompression(Compression compression) {
+        return new ServerSettings(sessionHistory, executorType, compression, admissionControl);
+    }
+
+    /**
+     * Ограничение одновременно выполняемых запросов
+     *
+     * @param admissionControl ограничение запросов, лишние запросы получают 503,
+     *                         AdmissionControl.DISABLED - без ограничения
+     * @return настройки с заданным ограничением
+     */
+    public ServerSettings withAdmissionControl(AdmissionControl admissionControl) {
+        return new ServerSettings(sessionHistory, executorType, compression, admissionControl);
+    }
+
+    public SessionHistoryManager getSessionHistory() {
+        return sessionHistory;
+    }
+
+    public ExecutorTypes getExecutorType() {
+        return executorType;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+}
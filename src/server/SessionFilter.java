@@ -0,0 +1,43 @@
+package server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import service.SessionHistoryManager;
+
+import java.io.IOException;
+
+/**
+ * Фильтр, который на время обработки запроса привязывает к потоку сессию клиента из заголовка X-Session-Id,
+ * чтобы просмотры и история велись отдельно для каждого клиента
+ */
+public class SessionFilter extends Filter {
+    public static final String SESSION_HEADER = "X-Session-Id";
+    private static final int MAX_SESSION_ID_LENGTH = 128; // более длинные идентификаторы не принимаются
+
+    private final SessionHistoryManager sessionHistory;
+
+    public SessionFilter(SessionHistoryManager sessionHistory) {
+        this.sessionHistory = sessionHistory;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        if (sessionId != null && (sessionId.isBlank() || sessionId.length() > MAX_SESSION_ID_LENGTH)) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+        sessionHistory.enterSession(sessionId);
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            sessionHistory.exitSession();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Binds the client session from the " + SESSION_HEADER + " header to the request thread";
+    }
+}
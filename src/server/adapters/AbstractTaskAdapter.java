@@ -0,0 +1,149 @@
+package server.adapters;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Status;
+import model.Task;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+/**
+ * Общая часть адаптеров задач: поля читаются и пишутся напрямую через JsonReader и JsonWriter, без рефлексии.
+ * Формат тот же, что и при сериализации полей классов: пустые (null) поля пропускаются, если в JsonWriter
+ * не включена запись null, неизвестные поля при чтении пропускаются, неизвестный статус читается как null
+ *
+ * @param <T> класс задачи
+ */
+abstract class AbstractTaskAdapter<T extends Task> extends TypeAdapter<T> {
+
+    @Override
+    public void write(JsonWriter out, T task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(task.getId());
+        writeString(out, "name", task.getName());
+        writeString(out, "description", task.getDescription());
+        writeString(out, "status", task.getStatus() == null ? null : task.getStatus().name());
+        writeDateTime(out, "startTime", task.getStartTime());
+        if (task.getDuration() != null) {
+            out.name("duration").value(task.getDuration().toMinutes());
+        } else if (out.getSerializeNulls()) {
+            out.name("duration").nullValue();
+        }
+        writeFields(out, task);
+        out.endObject();
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Fields fields = new Fields();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) { // пустое поле остается со значением по умолчанию
+                in.nextNull();
+                continue;
+            }
+            try {
+                readField(in, name, fields);
+            } catch (NumberFormatException | DateTimeException e) {
+                // неверное число или дата - такая же ошибка синтаксиса JSON, как и при чтении Gson
+                throw new JsonSyntaxException("Wrong value of field " + name + ".", e);
+            }
+        }
+        in.endObject();
+        return create(fields);
+    }
+
+    private static void readField(JsonReader in, String name, Fields fields) throws IOException {
+        switch (name) {
+            case "id" -> fields.id = in.nextInt();
+            case "name" -> fields.name = in.nextString();
+            case "description" -> fields.description = in.nextString();
+            case "status" -> fields.status = readStatus(in.nextString());
+            case "startTime" -> fields.startTime = LocalDateTimeAdapter.parse(in.nextString());
+            case "duration" -> fields.duration = Duration.ofMinutes(in.nextLong());
+            case "epicId" -> fields.epicId = in.nextInt();
+            case "endTime" -> fields.endTime = LocalDateTimeAdapter.parse(in.nextString());
+            case "subTasksId" -> {
+                fields.subtasksId = new HashSet<>();
+                in.beginArray();
+                while (in.hasNext()) {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        fields.subtasksId.add(in.nextInt());
+                    }
+                }
+                in.endArray();
+            }
+            default -> in.skipValue();
+        }
+    }
+
+    /**
+     * Запись полей, которые есть только у этого класса задач
+     *
+     * @param out  поток записи JSON
+     * @param task задача
+     * @throws IOException возможное исключение при записи
+     */
+    protected abstract void writeFields(JsonWriter out, T task) throws IOException;
+
+    /**
+     * Создание задачи из прочитанных полей, поля других классов задач не учитываются
+     *
+     * @param fields прочитанные поля
+     * @return задача
+     */
+    protected abstract T create(Fields fields);
+
+    protected static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        } else if (out.getSerializeNulls()) {
+            out.name(name).nullValue();
+        }
+    }
+
+    protected static void writeDateTime(JsonWriter out, String name, LocalDateTime value) throws IOException {
+        writeString(out, name, value == null ? null : LocalDateTimeAdapter.format(value));
+    }
+
+    // как и при чтении перечисления Gson, неизвестное значение - null
+    private static Status readStatus(String value) {
+        for (Status status : Status.values()) {
+            if (status.name().equals(value)) return status;
+        }
+        return null;
+    }
+
+    /**
+     * Поля задачи, прочитанные из JSON
+     */
+    protected static class Fields {
+        int id;
+        String name;
+        String description;
+        Status status;
+        LocalDateTime startTime;
+        Duration duration;
+        int epicId;
+        LocalDateTime endTime;
+        HashSet<Integer> subtasksId; // null - поле не задано
+    }
+}
@@ -2,6 +2,7 @@ package server.adapters;
 
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
@@ -20,10 +21,11 @@ public class DurationAdapter extends TypeAdapter<Duration> {
 
     @Override
     public Duration read(JsonReader jsonReader) throws IOException {
-        if (jsonReader.peek() == null) {
+        if (jsonReader.peek() == JsonToken.NULL) {
             jsonReader.nextNull();
             return null;
         }
-        return Duration.ofMinutes(Long.parseLong(jsonReader.nextString()));
+        // число минут читается сразу в long, без промежуточной строки
+        return Duration.ofMinutes(jsonReader.nextLong());
     }
 }
@@ -0,0 +1,27 @@
+package server.adapters;
+
+import com.google.gson.stream.JsonWriter;
+import model.Epic;
+
+import java.io.IOException;
+
+public class EpicAdapter extends AbstractTaskAdapter<Epic> {
+
+    @Override
+    protected void writeFields(JsonWriter out, Epic epic) throws IOException {
+        out.name("subTasksId").beginArray();
+        for (int id : epic.getSubtasksId()) {
+            out.value(id);
+        }
+        out.endArray();
+        writeDateTime(out, "endTime", epic.getEndTime());
+    }
+
+    @Override
+    protected Epic create(Fields fields) {
+        Epic epic = new Epic(fields.id, fields.name, fields.description, fields.status, fields.startTime,
+                fields.duration, fields.endTime);
+        if (fields.subtasksId != null) epic.getSubtasksId().addAll(fields.subtasksId);
+        return epic;
+    }
+}
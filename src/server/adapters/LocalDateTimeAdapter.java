@@ -2,14 +2,68 @@ package server.adapters;
 
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+/**
+ * Дата и время в формате dd.MM.yyyy HH:mm. Строка этой длины с годом от 1 до 9999 собирается и разбирается
+ * по позициям символов, без разбора шаблона DateTimeFormatter; остальные значения (и ошибки) - через форматтер
+ */
 public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
     private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    private static final int LENGTH = 16; // длина строки dd.MM.yyyy HH:mm
+
+    /**
+     * Разбор даты и времени в том же формате, что и в JSON, например, для параметров запроса
+     *
+     * @param text дата и время в формате dd.MM.yyyy HH:mm
+     * @return дата и время
+     */
+    public static LocalDateTime parse(String text) {
+        if (text.length() != LENGTH || text.charAt(2) != '.' || text.charAt(5) != '.' || text.charAt(10) != ' '
+                || text.charAt(13) != ':') {
+            return LocalDateTime.parse(text, dtf);
+        }
+        int day = digits(text, 0, 2);
+        int month = digits(text, 3, 5);
+        int year = digits(text, 6, 10);
+        int hour = digits(text, 11, 13);
+        int minute = digits(text, 14, 16);
+        if (day < 0 || month < 0 || year < 1 || hour < 0 || minute < 0) return LocalDateTime.parse(text, dtf);
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute);
+        } catch (DateTimeException e) {
+            // неверную дату форматтер разбирает по своим правилам (31.02 -> 29.02) или выбрасывает ошибку разбора
+            return LocalDateTime.parse(text, dtf);
+        }
+    }
+
+    /**
+     * Дата и время в формате JSON
+     *
+     * @param dateTime дата и время
+     * @return строка в формате dd.MM.yyyy HH:mm
+     */
+    public static String format(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) return dateTime.format(dtf);
+        char[] chars = new char[LENGTH];
+        putDigits(chars, 0, 2, dateTime.getDayOfMonth());
+        chars[2] = '.';
+        putDigits(chars, 3, 5, dateTime.getMonthValue());
+        chars[5] = '.';
+        putDigits(chars, 6, 10, year);
+        chars[10] = ' ';
+        putDigits(chars, 11, 13, dateTime.getHour());
+        chars[13] = ':';
+        putDigits(chars, 14, 16, dateTime.getMinute());
+        return new String(chars);
+    }
 
     @Override
     public void write(JsonWriter jsonWriter, LocalDateTime localDateTime) throws IOException {
@@ -17,15 +71,34 @@ public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
             jsonWriter.nullValue();
             return;
         }
-        jsonWriter.value(localDateTime.format(dtf));
+        jsonWriter.value(format(localDateTime));
     }
 
     @Override
     public LocalDateTime read(JsonReader jsonReader) throws IOException {
-        if (jsonReader.peek() == null) {
+        if (jsonReader.peek() == JsonToken.NULL) {
             jsonReader.nextNull();
             return null;
         }
-        return LocalDateTime.parse(jsonReader.nextString(), dtf);
+        return parse(jsonReader.nextString());
+    }
+
+    // число из цифр строки в позициях [start, end), -1 - если встретилась не цифра
+    private static int digits(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // запись числа с ведущими нулями в позиции [start, end)
+    private static void putDigits(char[] chars, int start, int end, int value) {
+        for (int i = end - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
     }
 }
@@ -0,0 +1,20 @@
+package server.adapters;
+
+import com.google.gson.stream.JsonWriter;
+import model.Subtask;
+
+import java.io.IOException;
+
+public class SubtaskAdapter extends AbstractTaskAdapter<Subtask> {
+
+    @Override
+    protected void writeFields(JsonWriter out, Subtask subtask) throws IOException {
+        out.name("epicId").value(subtask.getEpicId());
+    }
+
+    @Override
+    protected Subtask create(Fields fields) {
+        return new Subtask(fields.id, fields.name, fields.description, fields.status, fields.epicId, fields.startTime,
+                fields.duration);
+    }
+}
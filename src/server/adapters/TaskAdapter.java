@@ -0,0 +1,16 @@
+package server.adapters;
+
+import com.google.gson.stream.JsonWriter;
+import model.Task;
+
+public class TaskAdapter extends AbstractTaskAdapter<Task> {
+
+    @Override
+    protected void writeFields(JsonWriter out, Task task) {
+    }
+
+    @Override
+    protected Task create(Fields fields) {
+        return new Task(fields.id, fields.name, fields.description, fields.status, fields.startTime, fields.duration);
+    }
+}
@@ -4,28 +4,73 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import exception.TaskValidateException;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import server.Compression;
 import server.ContentTypes;
-import server.EndpointGroups;
-import server.Endpoints;
+import server.Router;
 import server.adapters.DurationAdapter;
+import server.adapters.EpicAdapter;
 import server.adapters.LocalDateTimeAdapter;
+import server.adapters.SubtaskAdapter;
+import server.adapters.TaskAdapter;
+import service.TaskQuery;
+import utils.BinaryTaskReader;
+import utils.BinaryTaskWriter;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 public abstract class BaseHttpHandler implements HttpHandler {
     protected static final Charset CHAR_SET = StandardCharsets.UTF_8;
-    protected Gson gson;
+    // один потокобезопасный Gson на все обработчики, без форматирования - ответы без лишних пробелов
+    // задачи читаются и пишутся своими адаптерами, без рефлексии
+    protected static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(Task.class, new TaskAdapter())
+            .registerTypeAdapter(Epic.class, new EpicAdapter())
+            .registerTypeAdapter(Subtask.class, new SubtaskAdapter()).create();
+    // начало тегов ETag, уникальное для каждого запуска сервера, так как версия данных начинается заново
+    private final String etagPrefix = Long.toHexString(ThreadLocalRandom.current().nextLong()) + "-";
+    private Compression compression = Compression.DEFAULT; // настройки сжатия ответов JSON
+    // маршруты обработчика, заполняются в конструкторе наследника
+    protected final Router router = new Router();
 
-    public BaseHttpHandler() {
-        gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .registerTypeAdapter(Duration.class, new DurationAdapter()).create();
+    /**
+     * Установка настроек сжатия ответов, вызывается до запуска сервера
+     *
+     * @param compression настройки сжатия
+     */
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Освобождение ресурсов обработчика (подписок на изменения менеджера), вызывается при остановке сервера
+     */
+    public void close() {
     }
 
     /**
@@ -51,6 +96,166 @@ public abstract class BaseHttpHandler implements HttpHandler {
         exchange.close();
     }
 
+    /**
+     * Проверка условного запроса по ETag: тег добавляется в заголовки ответа, и если у клиента уже есть
+     * данные с этим тегом (заголовок If-None-Match), то отправляется ответ 304 без тела
+     * версию данных нужно получить до чтения самих данных: менеджер меняет версию только после изменения,
+     * поэтому тег может оказаться только старее данных, и клиент в худшем случае лишний раз получит те же данные
+     *
+     * @param exchange - объект класса HttpExchange для обмена данными
+     * @param version  - версия данных ответа
+     * @return - true, если отправлен ответ 304 и данные отправлять не нужно
+     * @throws IOException - возможное исключение
+     */
+    protected boolean sendNotModified(HttpExchange exchange, String version) throws IOException {
+        String etag = "\"" + etagPrefix + version + "\"";
+        // тег слабый (W/): он один и тот же для сжатого и несжатого ответа
+        exchange.getResponseHeaders().set("ETag", "W/" + etag);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !matchesETag(ifNoneMatch, etag)) return false;
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    // в If-None-Match может быть список тегов через запятую, слабые теги (W/) сравниваются как обычные
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Отправка ответа сервера с объектом в формате JSON
+     * объект сериализуется сразу в поток ответа частями (chunked), без промежуточных строки и массива байт
+     * если клиент принимает gzip, то ответ больше порога сжатия сжимается на лету
+     *
+     * @param exchange - объект класса HttpExchange для обмена данными
+     * @param value    - объект для отправки
+     * @param rCode    - код ответа сервера
+     * @throws IOException - возможное исключение
+     */
+    protected void sendJson(HttpExchange exchange, Object value, int rCode) throws IOException {
+        sendJson(exchange, value, rCode, null);
+    }
+
+    /**
+     * Отправка ответа сервера с задачей или списком задач в формате JSON только с нужными полями
+     * клиенту, который принимает двоичный формат, задачи, списки задач и изменения отправляются в нем
+     * (всегда все поля, отбор полей - только для JSON)
+     *
+     * @param exchange - объект класса HttpExchange для обмена данными
+     * @param value    - задача или список задач для отправки
+     * @param rCode    - код ответа сервера
+     * @param fields   - поля задач для отправки, null - все поля
+     * @throws IOException - возможное исключение
+     */
+    protected void sendJson(HttpExchange exchange, Object value, int rCode, FieldProjection fields)
+            throws IOException {
+        boolean binary = acceptsBinary(exchange) && BinaryTaskWriter.supports(value);
+        exchange.getResponseHeaders().add("Content-Type", binary ? ContentTypes.BINARY.getValue()
+                : ContentTypes.JSON.getValue() + ";charset=" + CHAR_SET.name());
+        exchange.getResponseHeaders().add("Vary", "Accept");
+        if (compression.isEnabled()) exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        OutputStream os;
+        if (compression.isAcceptedBy(exchange.getRequestHeaders())) {
+            os = new CompressingOutputStream(exchange, rCode, compression);
+        } else {
+            exchange.sendResponseHeaders(rCode, 0); // длина ответа заранее неизвестна
+            os = exchange.getResponseBody();
+        }
+        if (binary) {
+            try (OutputStream out = new BufferedOutputStream(os)) {
+                BinaryTaskWriter writer = new BinaryTaskWriter(out);
+                writer.write(value);
+                writer.flush();
+            }
+            exchange.close();
+            return;
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(os, CHAR_SET))) {
+            if (fields == null) {
+                GSON.toJson(value, writer);
+            } else {
+                fields.write(GSON, GSON.newJsonWriter(writer), value);
+            }
+        }
+        exchange.close();
+    }
+
+    /**
+     * Отправка списка в формате JSON из кэша готовых ответов: список читается из менеджера и сериализуется,
+     * только если задачи его типов изменились после прошлого запроса
+     *
+     * @param exchange - объект класса HttpExchange для обмена данными
+     * @param cache    - кэш ответа этого списка
+     * @param data     - получение списка из менеджера
+     * @throws IOException - возможное исключение
+     */
+    protected void sendCachedJson(HttpExchange exchange, CachedResponse cache, Supplier<?> data) throws IOException {
+        if (acceptsBinary(exchange)) { // в кэше только JSON, двоичный ответ собирается быстро и без кэша
+            sendJson(exchange, data.get(), 200);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", ContentTypes.JSON.getValue() + ";charset=" + CHAR_SET.name());
+        exchange.getResponseHeaders().add("Vary", "Accept");
+        if (compression.isEnabled()) exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        Supplier<byte[]> encoder = () -> GSON.toJson(data.get()).getBytes(CHAR_SET);
+        byte[] body = cache.getJson(encoder);
+        // как и в sendJson, сжимаются только ответы больше порога
+        if (body.length > compression.getThreshold() && compression.isAcceptedBy(exchange.getRequestHeaders())) {
+            body = cache.getGzip(encoder, compression.getLevel());
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+        exchange.close();
+    }
+
+    /**
+     * Чтение объекта в формате JSON прямо из потока тела запроса
+     * задача в двоичном формате читается, если он указан в заголовке Content-Type запроса
+     *
+     * @param exchange - объект класса HttpExchange для обмена данными
+     * @param type     - класс объекта
+     * @return - объект или null, если тело запроса пустое
+     * @throws IOException - возможное исключение
+     */
+    protected <T> T readJson(HttpExchange exchange, Class<T> type) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith(ContentTypes.BINARY.getValue())) {
+            return readBinary(exchange, type);
+        }
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), CHAR_SET)) {
+            return GSON.fromJson(reader, type);
+        }
+    }
+
+    // чтение задачи в двоичном формате, класс задачи должен совпадать с ожидаемым
+    private <T> T readBinary(HttpExchange exchange, Class<T> type) throws IOException {
+        Task task;
+        try (InputStream in = new BufferedInputStream(exchange.getRequestBody())) {
+            task = new BinaryTaskReader(in).readTask();
+        } catch (EOFException e) {
+            throw new TaskValidateException("Binary format error.");
+        }
+        if (task != null && task.getClass() != type) {
+            throw new TaskValidateException("Wrong task type in request body: " + task.getType() + ".");
+        }
+        return type.cast(task);
+    }
+
+    // клиент указал двоичный формат в заголовке Accept
+    private static boolean acceptsBinary(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        return accept != null && accept.contains(ContentTypes.BINARY.getValue());
+    }
+
     /**
      * Отправка ответа сервера без сообщения в теле ответа
      *
@@ -63,83 +268,60 @@ public abstract class BaseHttpHandler implements HttpHandler {
     }
 
     /**
-     * Разделение пути запроса на отдельные строки
+     * Условия отбора задач из параметров запроса: status, type, epic, from и to (время в формате JSON)
      *
      * @param exchange - контейнер обмена
-     * @return - массив строк
+     * @param listType - тип задач списка, для которого запрос (параметр type тогда не учитывается),
+     *                 null - тип берется из параметра type
+     * @return - условия отбора или null, если ни одно условие не задано
      */
-    protected String[] getSplitPath(HttpExchange exchange) {
-        String requestPath = exchange.getRequestURI().getPath();
-        return requestPath.split("/");
+    protected TaskQuery readTaskQuery(HttpExchange exchange, TaskType listType) {
+        String status = getQueryParameter(exchange, "status");
+        String type = listType == null ? getQueryParameter(exchange, "type") : null;
+        String epic = getQueryParameter(exchange, "epic");
+        String from = getQueryParameter(exchange, "from");
+        String to = getQueryParameter(exchange, "to");
+        if (status == null && type == null && epic == null && from == null && to == null) return null;
+        try {
+            TaskQuery query = new TaskQuery()
+                    .withType(listType != null ? listType : type == null ? null : TaskType.valueOf(type))
+                    .withStatus(status == null ? null : Status.valueOf(status))
+                    .withEpicId(epic == null ? null : Integer.valueOf(epic));
+            return query.withStartTime(from == null ? null : LocalDateTimeAdapter.parse(from),
+                    to == null ? null : LocalDateTimeAdapter.parse(to));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new TaskValidateException("Wrong query parameters: status, type, epic, from or to.");
+        }
     }
 
     /**
-     * Получение конечного эндпоинта из пути запроса
+     * Поля задач для ответа из параметра запроса fields (имена через запятую)
      *
-     * @param pathParts     - путь запроса, разбитый на отдельные подстроки
-     * @param requestMethod - тип запроса
-     * @param group         - тип эндпоинта для поиска
-     * @return - эндпоинт
+     * @param exchange - контейнер обмена
+     * @return - план записи полей или null, если параметр не указан
      */
-    protected Endpoints getEndpoint(String[] pathParts, String requestMethod, EndpointGroups group) {
-        switch (group) {
-            case TASKS -> {
-                if (!pathParts[1].equals("tasks")) return Endpoints.UNKNOWN; // доп. проверка на путь
-                switch (requestMethod) {
-                    case "GET" -> {
-                        if (pathParts.length == 2) return Endpoints.GET_TASKS;
-                        if (pathParts.length == 3) return Endpoints.GET_TASK_BY_ID;
-                    }
-                    case "POST" -> {
-                        if (pathParts.length == 2) return Endpoints.POST_TASK;
-                    }
-                    case "DELETE" -> {
-                        if (pathParts.length == 3) return Endpoints.DELETE_TASK;
-                    }
-                }
-            }
-            case SUBTASKS -> {
-                if (!pathParts[1].equals("subtasks")) return Endpoints.UNKNOWN; // доп. проверка на путь
-                switch (requestMethod) {
-                    case "GET" -> {
-                        if (pathParts.length == 2) return Endpoints.GET_SUBTASKS;
-                        if (pathParts.length == 3) return Endpoints.GET_SUBTASK_BY_ID;
-                    }
-                    case "POST" -> {
-                        if (pathParts.length == 2) return Endpoints.POST_SUBTASK;
-                    }
-                    case "DELETE" -> {
-                        if (pathParts.length == 3) return Endpoints.DELETE_SUBTASK;
-                    }
-                }
-            }
-            case EPICS -> {
-                if (!pathParts[1].equals("epics")) return Endpoints.UNKNOWN; // доп. проверка на путь
-                switch (requestMethod) {
-                    case "GET" -> {
-                        if (pathParts.length == 2) return Endpoints.GET_EPICS;
-                        if (pathParts.length == 3) return Endpoints.GET_EPIC_BY_ID;
-                        if (pathParts.length == 4 && pathParts[3].equals("subtasks"))
-                            return Endpoints.GET_EPIC_SUBTASKS;
-                    }
-                    case "POST" -> {
-                        if (pathParts.length == 2) return Endpoints.POST_EPIC;
-                    }
-                    case "DELETE" -> {
-                        if (pathParts.length == 3) return Endpoints.DELETE_EPIC;
-                    }
-                }
-            }
-            case HISTORY -> {
-                if (!pathParts[1].equals("history")) return Endpoints.UNKNOWN; // доп. проверка на путь
-                if (requestMethod.equals("GET") && pathParts.length == 2) return Endpoints.GET_HISTORY;
-            }
-            case PRIORITIZED -> {
-                if (!pathParts[1].equals("prioritized")) return Endpoints.UNKNOWN; // доп. проверка на путь
-                if (requestMethod.equals("GET") && pathParts.length == 2) return Endpoints.GET_PRIORITIZED_TASKS;
+    protected FieldProjection readFieldProjection(HttpExchange exchange) {
+        String fields = getQueryParameter(exchange, "fields");
+        return fields == null ? null : FieldProjection.of(fields);
+    }
+
+    /**
+     * Получение значения параметра из строки запроса
+     *
+     * @param exchange - контейнер обмена
+     * @param name     - имя параметра
+     * @return - значение параметра или null, если параметр не указан
+     */
+    protected String getQueryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return null;
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            String parameterName = separator < 0 ? parameter : parameter.substring(0, separator);
+            if (URLDecoder.decode(parameterName, CHAR_SET).equals(name)) {
+                return separator < 0 ? "" : URLDecoder.decode(parameter.substring(separator + 1), CHAR_SET);
             }
         }
-
-        return Endpoints.UNKNOWN;
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package server.handlers;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import exception.ManagerSaveException;
+import exception.NotFoundException;
+import exception.TaskValidateException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import service.BatchAction;
+import service.BatchOperation;
+import service.TaskManager;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BatchHandler extends BaseHttpHandler {
+    private final TaskManager taskManager;
+
+    public BatchHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+        router.add("POST", "/batch", this::postBatch);
+    }
+
+    /**
+     * Handle the given request and generate an appropriate response.
+     * See {@link HttpExchange} for a description of the steps
+     * involved in handling an exchange.
+     *
+     * @param exchange the exchange containing the request from the
+     *                 client and used to send the response
+     * @throws NullPointerException if exchange is {@code null}
+     * @throws IOException          if an I/O error occurs
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!router.dispatch(exchange)) throw new NotFoundException("Not Found");
+        } catch (NotFoundException e) {
+            sendData(exchange, e.getMessage(), 404);
+        } catch (TaskValidateException e) {
+            sendData(exchange, e.getMessage(), 406);
+        } catch (ManagerSaveException e) {
+            sendData(exchange, e.getMessage(), 500);
+        }
+    }
+
+    private void postBatch(HttpExchange exchange) throws IOException {
+        List<BatchOperation> operations = readOperations(exchange);
+        List<Integer> ids = taskManager.applyBatch(operations);
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            results.add(new OperationResult(operations.get(i), ids.get(i)));
+        }
+        sendJson(exchange, results, 200);
+    }
+
+    /**
+     * Разбор тела запроса - массива операций вида {"action": "CREATE", "type": "SUBTASK", "task": {...}, "epicRef": 0}
+     * или {"action": "DELETE", "type": "TASK", "id": 1}
+     * epicRef - необязательный номер операции пакета, которая создает эпик подзадачи
+     */
+    private List<BatchOperation> readOperations(HttpExchange exchange) throws IOException {
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), CHAR_SET)) {
+            JsonElement body = JsonParser.parseReader(reader);
+            if (!body.isJsonArray()) throw new TaskValidateException("Batch must be a JSON array.");
+            JsonArray array = body.getAsJsonArray();
+            List<BatchOperation> operations = new ArrayList<>(array.size());
+            for (int i = 0; i < array.size(); i++) {
+                try {
+                    operations.add(readOperation(array.get(i)));
+                } catch (TaskValidateException e) {
+                    throw new TaskValidateException("Operation " + i + ": " + e.getMessage());
+                }
+            }
+            return operations;
+        } catch (JsonParseException e) {
+            throw new TaskValidateException("JSON syntax error.");
+        }
+    }
+
+    private BatchOperation readOperation(JsonElement element) {
+        if (!element.isJsonObject()) throw new TaskValidateException("Operation must be a JSON object.");
+        JsonObject operation = element.getAsJsonObject();
+        BatchAction action = readEnum(operation, "action", BatchAction.class);
+        TaskType type = readEnum(operation, "type", TaskType.class);
+        if (action == BatchAction.DELETE) return BatchOperation.delete(type, readInt(operation, "id"));
+
+        JsonElement taskJson = readMember(operation, "task");
+        if (!taskJson.isJsonObject()) throw new TaskValidateException("Field 'task' must be a JSON object.");
+        Task task = switch (type) {
+            case TASK -> GSON.fromJson(taskJson, Task.class);
+            case EPIC -> {
+                // у эпика из JSON без списка подзадач список должен быть пустым, а не null
+                if (!taskJson.getAsJsonObject().has("subTasksId")) taskJson.getAsJsonObject().add("subTasksId",
+                        new JsonArray());
+                yield GSON.fromJson(taskJson, Epic.class);
+            }
+            case SUBTASK -> GSON.fromJson(taskJson, Subtask.class);
+        };
+        if (action == BatchAction.UPDATE) return BatchOperation.update(task);
+        if (operation.has("epicRef")) {
+            if (type != TaskType.SUBTASK) throw new TaskValidateException("Field 'epicRef' is only for subtasks.");
+            return BatchOperation.create((Subtask) task, readInt(operation, "epicRef"));
+        }
+        return BatchOperation.create(task);
+    }
+
+    private static JsonElement readMember(JsonObject object, String name) {
+        JsonElement member = object.get(name);
+        if (member == null || member.isJsonNull()) throw new TaskValidateException("Field '" + name + "' is required.");
+        return member;
+    }
+
+    private static int readInt(JsonObject object, String name) {
+        JsonElement member = readMember(object, name);
+        try {
+            if (!member.isJsonPrimitive() || !member.getAsJsonPrimitive().isNumber()) throw new NumberFormatException();
+            return member.getAsBigDecimal().intValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new TaskValidateException("Field '" + name + "' must be an integer.");
+        }
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonObject object, String name, Class<E> type) {
+        try {
+            return Enum.valueOf(type, readMember(object, name).getAsString());
+        } catch (IllegalArgumentException | IllegalStateException | UnsupportedOperationException e) {
+            throw new TaskValidateException("Unknown " + name + " value.");
+        }
+    }
+
+    // результат операции пакета в ответе
+    private static class OperationResult {
+        final BatchAction action;
+        final TaskType type;
+        final int id;
+
+        OperationResult(BatchOperation operation, int id) {
+            action = operation.getAction();
+            type = operation.getType();
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package server.handlers;
+
+import model.TaskType;
+import service.ChangeListener;
+import service.TaskChange;
+import service.TaskManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш готового тела ответа списка (JSON и его сжатая gzip версия): пока задачи нужных типов не менялись,
+ * повторные запросы получают те же байты без чтения менеджера и сериализации.
+ * Кэш подписан на изменения менеджера и сбрасывается изменением задачи одного из своих типов.
+ * Изменение может произойти, пока ответ собирается, поэтому тело запоминается вместе с номером поколения,
+ * прочитанным до чтения данных, и используется, только если поколение с тех пор не изменилось.
+ * Кэш читается без блокировки менеджера, поэтому ETag ответа (версия менеджера, прочитанная до кэша) не должен
+ * опережать поколение: менеджер меняет версию только после вызова подписчиков, и запрос, увидевший новую версию,
+ * видит и сброшенный кэш.
+ * При остановке сервера кэш отписывается от менеджера через {@link #close()}
+ */
+class CachedResponse implements ChangeListener {
+    private final TaskManager taskManager;
+    private final Set<TaskType> types; // типы задач, из которых состоит ответ
+    private final AtomicLong generation = new AtomicLong(); // увеличивается при каждом изменении нужных задач
+    private volatile Entry entry; // последнее собранное тело ответа
+    private volatile boolean closed; // кэш отписан от менеджера, ответ каждый раз собирается заново
+
+    CachedResponse(TaskManager taskManager, TaskType type, TaskType... otherTypes) {
+        this.taskManager = taskManager;
+        types = EnumSet.of(type, otherTypes);
+        taskManager.addChangeListener(this);
+    }
+
+    /**
+     * Отписка от изменений менеджера, после нее кэш не используется
+     */
+    void close() {
+        closed = true;
+        taskManager.removeChangeListener(this);
+        entry = null;
+    }
+
+    @Override
+    public void onChange(TaskChange change) {
+        if (types.contains(change.getType())) generation.incrementAndGet();
+    }
+
+    /**
+     * Тело ответа в JSON: из кэша или заново
+     *
+     * @param encoder сериализация текущих данных ответа
+     * @return тело ответа
+     */
+    byte[] getJson(Supplier<byte[]> encoder) {
+        return currentEntry(encoder).json;
+    }
+
+    /**
+     * Тело ответа в JSON, сжатое gzip: сжимается один раз для каждого поколения данных
+     *
+     * @param encoder сериализация текущих данных ответа
+     * @param level   уровень сжатия
+     * @return сжатое тело ответа
+     */
+    byte[] getGzip(Supplier<byte[]> encoder, int level) {
+        Entry current = currentEntry(encoder);
+        byte[] gzip = current.gzip;
+        if (gzip == null) {
+            // два потока могут сжать одно и то же одновременно - результат одинаковый, блокировка не нужна
+            gzip = compress(current.json, level);
+            current.gzip = gzip;
+        }
+        return gzip;
+    }
+
+    private Entry currentEntry(Supplier<byte[]> encoder) {
+        long currentGeneration = generation.get(); // до чтения данных
+        Entry current = entry;
+        if (current != null && current.generation == currentGeneration) return current;
+        current = new Entry(currentGeneration, encoder.get());
+        if (!closed) entry = current;
+        return current;
+    }
+
+    private static byte[] compress(byte[] data, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // запись в память не выбрасывает IOException
+        }
+        return out.toByteArray();
+    }
+
+    private static class Entry {
+        final long generation;
+        final byte[] json;
+        volatile byte[] gzip;
+
+        Entry(long generation, byte[] json) {
+            this.generation = generation;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import exception.NotFoundException;
+import exception.TaskValidateException;
+import service.TaskManager;
+
+import java.io.IOException;
+
+/**
+ * Синхронизация клиента по версии данных (GET /changes?since=токен): только задачи, измененные или удаленные
+ * после токена синхронизации, который клиент получил в прошлый раз, и новый токен для следующего запроса
+ */
+public final class ChangesHandler extends BaseHttpHandler {
+    private final TaskManager taskManager;
+
+    public ChangesHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+        router.add("GET", "/changes", this::getChanges);
+    }
+
+    /**
+     * Handle the given request and generate an appropriate response.
+     * See {@link HttpExchange} for a description of the steps
+     * involved in handling an exchange.
+     *
+     * @param exchange the exchange containing the request from the
+     *                 client and used to send the response
+     * @throws NullPointerException if exchange is {@code null}
+     * @throws IOException          if an I/O error occurs
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!router.dispatch(exchange)) throw new NotFoundException("Not Found");
+        } catch (NotFoundException e) {
+            sendData(exchange, e.getMessage(), 404);
+        } catch (TaskValidateException e) {
+            sendData(exchange, e.getMessage(), 406);
+        }
+    }
+
+    private void getChanges(HttpExchange exchange) throws IOException {
+        String since = getQueryParameter(exchange, "since");
+        if (since == null) throw new TaskValidateException("Parameter since must be a sync token.");
+        sendJson(exchange, taskManager.getChangesSince(since), 200);
+    }
+}
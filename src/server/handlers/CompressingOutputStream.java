@@ -0,0 +1,82 @@
+package server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import server.Compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Поток тела ответа со сжатием gzip для ответов больше порога.
+ * Первые байты ответа (до порога) копятся в буфере: если ответ в него поместился, он отправляется без сжатия
+ * с известной длиной, иначе отправляются заголовки Content-Encoding: gzip, и дальше ответ сжимается
+ * на лету и передается частями (chunked).
+ */
+class CompressingOutputStream extends OutputStream {
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private final HttpExchange exchange;
+    private final int rCode;
+    private final int level;
+    private final byte[] buffer; // начало ответа до порога сжатия
+    private int count; // количество байт в буфере
+    private OutputStream out; // поток сжатия, создается, когда ответ превысил порог
+    private boolean closed;
+
+    CompressingOutputStream(HttpExchange exchange, int rCode, Compression compression) {
+        this.exchange = exchange;
+        this.rCode = rCode;
+        this.level = compression.getLevel();
+        buffer = new byte[compression.getThreshold()];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (out == null && count < buffer.length) {
+            buffer[count++] = (byte) b;
+            return;
+        }
+        startCompression();
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out == null && len <= buffer.length - count) {
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+            return;
+        }
+        startCompression();
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        if (out != null) {
+            out.close(); // дописывает конец сжатого потока и закрывает поток ответа
+            return;
+        }
+        // ответ поместился в буфер - отправляем без сжатия
+        exchange.sendResponseHeaders(rCode, count == 0 ? -1 : count);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(buffer, 0, count);
+        }
+    }
+
+    // отправка заголовков сжатого ответа и сжатие накопленного буфера
+    private void startCompression() throws IOException {
+        if (out != null) return;
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(rCode, 0);
+        out = new GZIPOutputStream(exchange.getResponseBody(), GZIP_BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+        out.write(buffer, 0, count);
+    }
+}
@@ -7,18 +7,30 @@ import exception.NotFoundException;
 import exception.TaskValidateException;
 import model.Epic;
 import model.Subtask;
-import server.EndpointGroups;
-import server.Endpoints;
+import model.TaskType;
 import service.TaskManager;
+import service.TaskQuery;
 
 import java.io.IOException;
 import java.util.List;
 
-public class EpicsHandler extends BaseHttpHandler {
+public final class EpicsHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
+    private final CachedResponse epicsResponse; // готовый ответ на GET /epics
 
     public EpicsHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        epicsResponse = new CachedResponse(taskManager, TaskType.EPIC);
+        router.add("GET", "/epics", this::getEpics)
+                .add("GET", "/epics/{id}", this::getEpicById)
+                .add("GET", "/epics/{id}/subtasks", this::getEpicSubtasks)
+                .add("POST", "/epics", this::postEpic)
+                .add("DELETE", "/epics/{id}", this::deleteEpic);
+    }
+
+    @Override
+    public void close() {
+        epicsResponse.close();
     }
 
     /**
@@ -33,46 +45,9 @@ public class EpicsHandler extends BaseHttpHandler {
      */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        String[] pathParts = getSplitPath(exchange);
-        Endpoints endpoint = getEndpoint(pathParts, exchange.getRequestMethod(), EndpointGroups.EPICS);
         try {
-            if (endpoint == Endpoints.UNKNOWN) throw new NotFoundException("Not Found");
-            int tmpEpicId = -1;
-            if (pathParts.length > 2) {
-                tmpEpicId = Integer.parseInt(pathParts[2]);
-            }
-            switch (endpoint) {
-                case GET_EPICS -> sendData(exchange, gson.toJson(taskManager.getEpics()), 200);
-                case GET_EPIC_BY_ID -> sendData(exchange, gson.toJson(taskManager.getEpicById(tmpEpicId)), 200);
-                case GET_EPIC_SUBTASKS -> {
-                    Epic epic = taskManager.getEpicById(tmpEpicId);
-                    List<Subtask> subtasks = taskManager.getEpicSubtasks(epic);
-                    sendData(exchange, gson.toJson(subtasks), 200);
-                }
-                case POST_EPIC -> {
-                    String requestBody = new String(exchange.getRequestBody().readAllBytes(), CHAR_SET);
-                    Epic epic = gson.fromJson(requestBody, Epic.class);
-                    tmpEpicId = epic.getId();
-                    boolean isEpicExist = true;
-                    try {
-                        taskManager.getEpicById(tmpEpicId);
-                    } catch (NotFoundException e) {
-                        isEpicExist = false;
-                    }
-                    if (isEpicExist) {
-                        taskManager.updateEpic(epic);
-                        sendData(exchange, gson.toJson(epic), 201);
-                    } else {
-                        taskManager.addEpic(epic);
-                        sendData(exchange, 201);
-                    }
-                }
-                case DELETE_EPIC -> {
-                    taskManager.deleteEpicById(tmpEpicId);
-                    sendData(exchange, 204);
-                }
-            }
-        } catch (NotFoundException | NumberFormatException e) {
+            if (!router.dispatch(exchange)) throw new NotFoundException("Not Found");
+        } catch (NotFoundException e) {
             sendData(exchange, e.getMessage(), 404);
         } catch (TaskValidateException e) {
             sendData(exchange, e.getMessage(), 406);
@@ -82,4 +57,41 @@ public class EpicsHandler extends BaseHttpHandler {
             sendData(exchange, "JSON syntax error.", 406);
         }
     }
+
+    private void getEpics(HttpExchange exchange) throws IOException {
+        TaskQuery query = readTaskQuery(exchange, TaskType.EPIC);
+        String version = Long.toString(taskManager.getVersion());
+        if (sendNotModified(exchange, version)) return;
+        FieldProjection fields = readFieldProjection(exchange);
+        if (query == null && fields == null) {
+            sendCachedJson(exchange, epicsResponse, taskManager::getEpics);
+        } else {
+            // кэш только для ответа без параметров, отобранные и неполные ответы собираются заново
+            sendJson(exchange, query == null ? taskManager.getEpics() : taskManager.findTasks(query), 200, fields);
+        }
+    }
+
+    private void getEpicById(HttpExchange exchange, int id) throws IOException {
+        sendJson(exchange, taskManager.getEpicById(id), 200, readFieldProjection(exchange));
+    }
+
+    private void getEpicSubtasks(HttpExchange exchange, int id) throws IOException {
+        Epic epic = taskManager.getEpicById(id);
+        List<Subtask> subtasks = taskManager.getEpicSubtasks(epic);
+        sendJson(exchange, subtasks, 200, readFieldProjection(exchange));
+    }
+
+    private void postEpic(HttpExchange exchange) throws IOException {
+        Epic epic = readJson(exchange, Epic.class);
+        if (taskManager.upsertEpic(epic)) {
+            sendData(exchange, 201);
+        } else {
+            sendJson(exchange, epic, 201);
+        }
+    }
+
+    private void deleteEpic(HttpExchange exchange, int id) throws IOException {
+        taskManager.deleteEpicById(id);
+        sendData(exchange, 204);
+    }
 }
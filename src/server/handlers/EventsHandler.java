@@ -0,0 +1,186 @@
+package server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import exception.NotFoundException;
+import server.ContentTypes;
+import service.ChangeListener;
+import service.TaskChange;
+import service.TaskManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поток изменений задач для клиентов в формате server-sent events (GET /events)
+ * у каждого подписчика своя ограниченная очередь событий: менеджер только кладет событие в очередь и не ждет
+ * клиента, а отправкой занимается отдельный виртуальный поток подписчика. Если клиент читает медленнее,
+ * чем меняются задачи, и очередь переполняется, то ему отправляется событие reset и соединение закрывается -
+ * клиент должен заново загрузить задачи и подписаться еще раз
+ */
+public final class EventsHandler extends BaseHttpHandler {
+    private static final int DEFAULT_QUEUE_CAPACITY = 256; // событий в очереди одного подписчика
+    private static final Duration DEFAULT_HEARTBEAT = Duration.ofSeconds(15); // период комментария-пинга
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(1); // ожидание закрытия потоков событий
+    // признак конца потока в очереди подписчика: сервер остановлен или очередь переполнена
+    private static final TaskChange END_OF_STREAM = new TaskChange(null, null, 0, 0);
+
+    private final TaskManager taskManager;
+    private final int queueCapacity;
+    private final long heartbeatNanos;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet(); // открытые потоки событий
+
+    public EventsHandler(TaskManager taskManager) {
+        this(taskManager, DEFAULT_QUEUE_CAPACITY, DEFAULT_HEARTBEAT);
+    }
+
+    /**
+     * Конструктор обработчика с настройками потока событий
+     *
+     * @param taskManager   менеджер задач
+     * @param queueCapacity максимальное количество неотправленных событий одного подписчика
+     * @param heartbeat     период отправки комментария-пинга, чтобы соединение не закрывалось по бездействию
+     */
+    public EventsHandler(TaskManager taskManager, int queueCapacity, Duration heartbeat) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive: "
+                + queueCapacity);
+        this.taskManager = taskManager;
+        this.queueCapacity = queueCapacity;
+        this.heartbeatNanos = heartbeat.toNanos();
+        router.add("GET", "/events", this::getEvents);
+    }
+
+    /**
+     * Handle the given request and generate an appropriate response.
+     * See {@link HttpExchange} for a description of the steps
+     * involved in handling an exchange.
+     *
+     * @param exchange the exchange containing the request from the
+     *                 client and used to send the response
+     * @throws NullPointerException if exchange is {@code null}
+     * @throws IOException          if an I/O error occurs
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!router.dispatch(exchange)) throw new NotFoundException("Not Found");
+        } catch (NotFoundException e) {
+            sendData(exchange, e.getMessage(), 404);
+        }
+    }
+
+    private void getEvents(HttpExchange exchange) throws IOException {
+        Subscriber subscriber = new Subscriber(exchange);
+        // подписка до отправки заголовков: клиент, получивший ответ, уже не пропустит изменений
+        subscribers.add(subscriber);
+        taskManager.addChangeListener(subscriber);
+        boolean started = false;
+        try {
+            exchange.getResponseHeaders().add("Content-Type", ContentTypes.EVENT_STREAM.getValue()
+                    + ";charset=" + CHAR_SET.name());
+            exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            // поток событий не занимает поток исполнителя сервера (при DEFAULT это единственный поток)
+            subscriber.thread = Thread.ofVirtual().name("events-subscriber").start(subscriber::stream);
+            started = true;
+        } finally {
+            // заголовки не отправлены - поток событий не начнется, и отписаться при его завершении будет некому
+            if (!started) subscriber.unsubscribe();
+        }
+    }
+
+    /**
+     * Закрытие всех потоков событий, вызывается при остановке сервера
+     * потоки подписчиков завершаются сами, чтобы клиенты получили корректный конец ответа
+     */
+    @Override
+    public void close() {
+        subscribers.forEach(Subscriber::close);
+        long deadline = System.nanoTime() + CLOSE_TIMEOUT.toNanos();
+        for (Subscriber subscriber : subscribers) {
+            Thread thread = subscriber.thread;
+            if (thread == null) continue;
+            try {
+                thread.join(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Количество открытых потоков событий
+     *
+     * @return количество подписчиков
+     */
+    public int getSubscribersCount() {
+        return subscribers.size();
+    }
+
+    // подписчик на изменения: событие из потока менеджера только кладется в очередь, отправка - в своем потоке
+    private class Subscriber implements ChangeListener {
+        private final HttpExchange exchange;
+        private final BlockingQueue<TaskChange> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private volatile boolean overflowed; // клиент не успевал читать события, часть событий потеряна
+        private volatile Thread thread; // поток отправки событий
+
+        Subscriber(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void onChange(TaskChange change) {
+            if (overflowed || queue.offer(change)) return;
+            // очередь полна: дальше события клиенту не нужны, освобождаем место для признака конца потока
+            overflowed = true;
+            queue.clear();
+            queue.offer(END_OF_STREAM);
+        }
+
+        void close() {
+            queue.clear();
+            queue.offer(END_OF_STREAM);
+        }
+
+        void stream() {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), CHAR_SET))) {
+                writer.write(": connected\n\n");
+                writer.flush();
+                while (true) {
+                    TaskChange change = queue.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+                    if (change == END_OF_STREAM) {
+                        if (overflowed) writer.write("event: reset\ndata: {}\n\n");
+                        break;
+                    }
+                    if (change == null) {
+                        writer.write(": ping\n\n");
+                    } else {
+                        writer.write("id: " + change.getVersion() + "\nevent: change\ndata: ");
+                        GSON.toJson(change, writer);
+                        writer.write("\n\n");
+                    }
+                    // несколько готовых событий отправляются вместе
+                    if (queue.isEmpty()) writer.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // клиент отключился или поток прерван - просто закрываем подписку
+            } finally {
+                unsubscribe();
+                exchange.close();
+            }
+        }
+
+        void unsubscribe() {
+            taskManager.removeChangeListener(this);
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package server.handlers;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import exception.TaskValidateException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Ответ только с нужными полями задач (параметр запроса fields=id,name,status): поля записываются прямо из
+ * геттеров задачи, без обхода всех полей классов, поэтому длинные описания и списки подзадач эпиков не
+ * сериализуются вовсе. План записи (список свойств) разбирается один раз для каждой строки полей и кэшируется.
+ * Имена и формат полей такие же, как в полном ответе, пустые (null) поля так же пропускаются
+ */
+final class FieldProjection {
+    private static final int MAX_PLANS = 256; // строки полей задает клиент, поэтому кэш ограничен
+    // свойства задач в порядке полей полного ответа
+    private static final Map<String, Property> PROPERTIES = new LinkedHashMap<>();
+    private static final Map<String, FieldProjection> PLANS = new ConcurrentHashMap<>();
+
+    static {
+        addProperty("id", Task.class, Task::getId);
+        addProperty("name", Task.class, Task::getName);
+        addProperty("description", Task.class, Task::getDescription);
+        addProperty("status", Task.class, Task::getStatus);
+        addProperty("startTime", Task.class, Task::getStartTime);
+        addProperty("duration", Task.class, Task::getDuration);
+        addProperty("epicId", Subtask.class, task -> ((Subtask) task).getEpicId());
+        addProperty("subTasksId", Epic.class, task -> ((Epic) task).getSubtasksId());
+        addProperty("endTime", Epic.class, Task::getEndTime);
+    }
+
+    private final Property[] properties;
+
+    private FieldProjection(Property[] properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * План записи для строки полей: из кэша или разбором строки
+     *
+     * @param fields имена полей через запятую
+     * @return план записи
+     * @throws TaskValidateException если поле неизвестно или список пуст
+     */
+    static FieldProjection of(String fields) {
+        FieldProjection projection = PLANS.get(fields);
+        if (projection != null) return projection;
+        projection = parse(fields);
+        if (PLANS.size() < MAX_PLANS) PLANS.putIfAbsent(fields, projection);
+        return projection;
+    }
+
+    private static FieldProjection parse(String fields) {
+        List<String> names = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) continue;
+            if (!PROPERTIES.containsKey(name)) throw new TaskValidateException("Unknown field: " + name + ".");
+            names.add(name);
+        }
+        if (names.isEmpty()) throw new TaskValidateException("Fields list is empty.");
+        // поля записываются в порядке полного ответа, повторы не учитываются
+        return new FieldProjection(PROPERTIES.entrySet().stream()
+                .filter(entry -> names.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toArray(Property[]::new));
+    }
+
+    private static void addProperty(String name, Class<? extends Task> owner, Function<Task, Object> getter) {
+        PROPERTIES.put(name, new Property(name, owner, getter));
+    }
+
+    /**
+     * Запись задачи или списка задач
+     *
+     * @param gson  сериализация значений полей (время, продолжительность, ID подзадач)
+     * @param out   поток записи JSON
+     * @param value задача или список задач
+     * @throws IOException возможное исключение при записи
+     */
+    void write(Gson gson, JsonWriter out, Object value) throws IOException {
+        if (value instanceof Collection<?> tasks) {
+            out.beginArray();
+            for (Object task : tasks) {
+                writeTask(gson, out, (Task) task);
+            }
+            out.endArray();
+        } else {
+            writeTask(gson, out, (Task) value);
+        }
+    }
+
+    private void writeTask(Gson gson, JsonWriter out, Task task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        for (Property property : properties) {
+            if (!property.owner.isInstance(task)) continue;
+            Object value = property.getter.apply(task);
+            if (value == null) continue;
+            out.name(property.name);
+            if (value instanceof Number number) {
+                out.value(number);
+            } else if (value instanceof String string) {
+                out.value(string);
+            } else if (value instanceof Enum<?> constant) {
+                out.value(constant.name());
+            } else {
+                gson.toJson(value, value.getClass(), out);
+            }
+        }
+        out.endObject();
+    }
+
+    private static class Property {
+        final String name; // имя поля в JSON
+        final Class<? extends Task> owner; // класс задач, у которых есть это поле
+        final Function<Task, Object> getter;
+
+        Property(String name, Class<? extends Task> owner, Function<Task, Object> getter) {
+            this.name = name;
+            this.owner = owner;
+            this.getter = getter;
+        }
+    }
+}
@@ -2,17 +2,19 @@ package server.handlers;
 
 import com.sun.net.httpserver.HttpExchange;
 import exception.NotFoundException;
-import server.EndpointGroups;
-import server.Endpoints;
+import exception.TaskValidateException;
+import model.Task;
 import service.TaskManager;
 
 import java.io.IOException;
+import java.util.List;
 
-public class HistoryHandler extends BaseHttpHandler {
+public final class HistoryHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public HistoryHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        router.add("GET", "/history", this::getHistory);
     }
 
     /**
@@ -27,13 +29,35 @@ public class HistoryHandler extends BaseHttpHandler {
      */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        String[] pathParts = getSplitPath(exchange);
-        Endpoints endpoint = getEndpoint(pathParts, exchange.getRequestMethod(), EndpointGroups.HISTORY);
         try {
-            if (endpoint == Endpoints.UNKNOWN) throw new NotFoundException("Not Found");
-            sendData(exchange, gson.toJson(taskManager.getHistory()), 200);
+            if (!router.dispatch(exchange)) throw new NotFoundException("Not Found");
         } catch (NotFoundException e) {
             sendData(exchange, e.getMessage(), 404);
+        } catch (TaskValidateException e) {
+            sendData(exchange, e.getMessage(), 406);
+        } catch (IllegalArgumentException e) {
+            sendData(exchange, "Limit must be a non-negative number.", 406);
         }
     }
+
+    private void getHistory(HttpExchange exchange) throws IOException {
+        // параметр limit - вернуть только указанное количество последних просмотров
+        String limit = getQueryParameter(exchange, "limit");
+        long version = taskManager.getVersion();
+        List<Task> history = limit == null ? taskManager.getHistory()
+                : taskManager.getHistory(Integer.parseInt(limit));
+        // просмотры меняют историю без изменения версии менеджера, поэтому в тег входит и хэш ID истории
+        if (!sendNotModified(exchange, version + "-" + Long.toHexString(hashOfIds(history)))) {
+            sendJson(exchange, history, 200, readFieldProjection(exchange));
+        }
+    }
+
+    // 64-битный хэш ID задач истории с учетом порядка
+    private static long hashOfIds(List<Task> history) {
+        long hash = history.size();
+        for (Task task : history) {
+            hash = (hash ^ task.getId()) * 0x9E3779B97F4A7C15L;
+        }
+        return hash;
+    }
 }
@@ -0,0 +1,62 @@
+package server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import exception.ManagerSaveException;
+import exception.NotFoundException;
+import exception.TaskValidateException;
+import model.Task;
+import service.TaskManager;
+import utils.CsvField;
+import utils.FileCsvUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.EnumSet;
+import java.util.List;
+
+public final class ImportHandler extends BaseHttpHandler {
+    private final TaskManager taskManager;
+
+    public ImportHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+        router.add("POST", "/import", this::postImport);
+    }
+
+    /**
+     * Handle the given request and generate an appropriate response.
+     * See {@link HttpExchange} for a description of the steps
+     * involved in handling an exchange.
+     *
+     * @param exchange the exchange containing the request from the
+     *                 client and used to send the response
+     * @throws NullPointerException if exchange is {@code null}
+     * @throws IOException          if an I/O error occurs
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!router.dispatch(exchange)) throw new NotFoundException("Not Found");
+        } catch (NotFoundException e) {
+            sendData(exchange, e.getMessage(), 404);
+        } catch (TaskValidateException e) {
+            sendData(exchange, e.getMessage(), 406);
+        } catch (ManagerSaveException e) {
+            sendData(exchange, e.getMessage(), 500);
+        }
+    }
+
+    private void postImport(HttpExchange exchange) throws IOException {
+        List<Task> newTasks;
+        // тело запроса в формате CSV файла менеджера разбираем построчно, без промежуточной строки со всем телом,
+        // но все задачи собираются в список: импорт атомарный, и менеджер проверяет весь пакет до добавления
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(),
+                CHAR_SET))) {
+            newTasks = FileCsvUtils.readTasks(reader, EnumSet.allOf(CsvField.class));
+        } catch (ManagerSaveException e) {
+            throw new TaskValidateException(e.getMessage());
+        }
+        taskManager.importTasks(newTasks);
+        sendData(exchange, 201);
+    }
+}
@@ -2,17 +2,28 @@ package server.handlers;
 
 import com.sun.net.httpserver.HttpExchange;
 import exception.NotFoundException;
-import server.EndpointGroups;
-import server.Endpoints;
+import exception.TaskValidateException;
+import model.Task;
+import model.TaskType;
 import service.TaskManager;
+import service.TaskQuery;
 
 import java.io.IOException;
+import java.util.List;
 
-public class PrioritizedHandler extends BaseHttpHandler {
+public final class PrioritizedHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
+    private final CachedResponse prioritizedResponse; // готовый ответ, в списке только задачи и подзадачи
 
     public PrioritizedHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        prioritizedResponse = new CachedResponse(taskManager, TaskType.TASK, TaskType.SUBTASK);
+        router.add("GET", "/prioritized", this::getPrioritized);
+    }
+
+    @Override
+    public void close() {
+        prioritizedResponse.close();
     }
 
     /**
@@ -27,13 +38,27 @@ public class PrioritizedHandler extends BaseHttpHandler {
      */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        String[] pathParts = getSplitPath(exchange);
-        Endpoints endpoint = getEndpoint(pathParts, exchange.getRequestMethod(), EndpointGroups.PRIORITIZED);
         try {
-            if (endpoint == Endpoints.UNKNOWN) throw new NotFoundException("Not Found");
-            sendData(exchange, gson.toJson(taskManager.getPrioritizedTasks()), 200);
+            if (!router.dispatch(exchange)) throw new NotFoundException("Not Found");
         } catch (NotFoundException e) {
             sendData(exchange, e.getMessage(), 404);
+        } catch (TaskValidateException e) {
+            sendData(exchange, e.getMessage(), 406);
+        }
+    }
+
+    private void getPrioritized(HttpExchange exchange) throws IOException {
+        TaskQuery query = readTaskQuery(exchange, null);
+        String version = Long.toString(taskManager.getVersion());
+        if (sendNotModified(exchange, version)) return;
+        FieldProjection fields = readFieldProjection(exchange);
+        if (query == null && fields == null) {
+            sendCachedJson(exchange, prioritizedResponse, taskManager::getPrioritizedTasks);
+        } else {
+            // кэш только для ответа без параметров, отобранные и неполные ответы собираются заново
+            List<Task> tasks = query == null ? taskManager.getPrioritizedTasks()
+                    : taskManager.getPrioritizedTasks(query);
+            sendJson(exchange, tasks, 200, fields);
         }
     }
 }
@@ -6,17 +6,28 @@ import exception.ManagerSaveException;
 import exception.NotFoundException;
 import exception.TaskValidateException;
 import model.Subtask;
-import server.EndpointGroups;
-import server.Endpoints;
+import model.TaskType;
 import service.TaskManager;
+import service.TaskQuery;
 
 import java.io.IOException;
 
-public class SubtasksHandler extends BaseHttpHandler {
+public final class SubtasksHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
+    private final CachedResponse subtasksResponse; // готовый ответ на GET /subtasks
 
     public SubtasksHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        subtasksResponse = new CachedResponse(taskManager, TaskType.SUBTASK);
+        router.add("GET", "/subtasks", this::getSubtasks)
+                .add("GET", "/subtasks/{id}", this::getSubtaskById)
+                .add("POST", "/subtasks", this::postSubtask)
+                .add("DELETE", "/subtasks/{id}", this::deleteSubtask);
+    }
+
+    @Override
+    public void close() {
+        subtasksResponse.close();
     }
 
     /**
@@ -31,37 +42,9 @@ public class SubtasksHandler extends BaseHttpHandler {
      */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        String[] pathParts = getSplitPath(exchange);
-        Endpoints endpoint = getEndpoint(pathParts, exchange.getRequestMethod(), EndpointGroups.SUBTASKS);
         try {
-            if (endpoint == Endpoints.UNKNOWN) throw new NotFoundException("Not Found");
-            int tmpSubtaskId = -1;
-            if (pathParts.length > 2) {
-                tmpSubtaskId = Integer.parseInt(pathParts[2]);
-            }
-            switch (endpoint) {
-                case GET_SUBTASKS -> sendData(exchange, gson.toJson(taskManager.getSubtasks()), 200);
-                case GET_SUBTASK_BY_ID ->
-                        sendData(exchange, gson.toJson(taskManager.getSubtaskById(tmpSubtaskId)), 200);
-                case POST_SUBTASK -> {
-                    String requestBody = new String(exchange.getRequestBody().readAllBytes(), CHAR_SET);
-                    Subtask subtask = gson.fromJson(requestBody, Subtask.class);
-                    tmpSubtaskId = subtask.getId();
-                    try {
-                        taskManager.getSubtaskById(tmpSubtaskId);
-                        taskManager.updateSubtask(subtask);
-                        sendData(exchange, gson.toJson(subtask), 201);
-                    } catch (NotFoundException e) {
-                        taskManager.addSubtask(subtask);
-                        sendData(exchange, 201);
-                    }
-                }
-                case DELETE_SUBTASK -> {
-                    taskManager.deleteSubtaskById(tmpSubtaskId);
-                    sendData(exchange, 204);
-                }
-            }
-        } catch (NotFoundException | NumberFormatException e) {
+            if (!router.dispatch(exchange)) throw new NotFoundException("Not Found");
+        } catch (NotFoundException e) {
             sendData(exchange, e.getMessage(), 404);
         } catch (TaskValidateException e) {
             sendData(exchange, e.getMessage(), 406);
@@ -71,4 +54,33 @@ public class SubtasksHandler extends BaseHttpHandler {
             sendData(exchange, "JSON syntax error.", 406);
         }
     }
+
+    private void getSubtasks(HttpExchange exchange) throws IOException {
+        TaskQuery query = readTaskQuery(exchange, TaskType.SUBTASK);
+        FieldProjection fields = readFieldProjection(exchange);
+        if (query == null && fields == null) {
+            sendCachedJson(exchange, subtasksResponse, taskManager::getSubtasks);
+        } else {
+            // кэш только для ответа без параметров, отобранные и неполные ответы собираются заново
+            sendJson(exchange, query == null ? taskManager.getSubtasks() : taskManager.findTasks(query), 200, fields);
+        }
+    }
+
+    private void getSubtaskById(HttpExchange exchange, int id) throws IOException {
+        sendJson(exchange, taskManager.getSubtaskById(id), 200, readFieldProjection(exchange));
+    }
+
+    private void postSubtask(HttpExchange exchange) throws IOException {
+        Subtask subtask = readJson(exchange, Subtask.class);
+        if (taskManager.upsertSubtask(subtask)) {
+            sendData(exchange, 201);
+        } else {
+            sendJson(exchange, subtask, 201);
+        }
+    }
+
+    private void deleteSubtask(HttpExchange exchange, int id) throws IOException {
+        taskManager.deleteSubtaskById(id);
+        sendData(exchange, 204);
+    }
 }
@@ -6,17 +6,28 @@ import exception.ManagerSaveException;
 import exception.NotFoundException;
 import exception.TaskValidateException;
 import model.Task;
-import server.EndpointGroups;
-import server.Endpoints;
+import model.TaskType;
 import service.TaskManager;
+import service.TaskQuery;
 
 import java.io.IOException;
 
-public class TasksHandler extends BaseHttpHandler {
+public final class TasksHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
+    private final CachedResponse tasksResponse; // готовый ответ на GET /tasks
 
     public TasksHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        tasksResponse = new CachedResponse(taskManager, TaskType.TASK);
+        router.add("GET", "/tasks", this::getTasks)
+                .add("GET", "/tasks/{id}", this::getTaskById)
+                .add("POST", "/tasks", this::postTask)
+                .add("DELETE", "/tasks/{id}", this::deleteTask);
+    }
+
+    @Override
+    public void close() {
+        tasksResponse.close();
     }
 
     /**
@@ -31,36 +42,9 @@ public class TasksHandler extends BaseHttpHandler {
      */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        String[] pathParts = getSplitPath(exchange);
-        Endpoints endpoint = getEndpoint(pathParts, exchange.getRequestMethod(), EndpointGroups.TASKS);
         try {
-            if (endpoint == Endpoints.UNKNOWN) throw new NotFoundException("Not Found");
-            int tmpTaskId = -1;
-            if (pathParts.length > 2) {
-                tmpTaskId = Integer.parseInt(pathParts[2]);
-            }
-            switch (endpoint) {
-                case GET_TASKS -> sendData(exchange, gson.toJson(taskManager.getTasks()), 200);
-                case GET_TASK_BY_ID -> sendData(exchange, gson.toJson(taskManager.getTaskById(tmpTaskId)), 200);
-                case POST_TASK -> {
-                    String requestBody = new String(exchange.getRequestBody().readAllBytes(), CHAR_SET);
-                    Task task = gson.fromJson(requestBody, Task.class);
-                    tmpTaskId = task.getId();
-                    try {
-                        taskManager.getTaskById(tmpTaskId);
-                        taskManager.updateTask(task);
-                        sendData(exchange, gson.toJson(task), 201);
-                    } catch (NotFoundException e) {
-                        taskManager.addTask(task);
-                        sendData(exchange, 201);
-                    }
-                }
-                case DELETE_TASK -> {
-                    taskManager.deleteTaskById(tmpTaskId);
-                    sendData(exchange, 204);
-                }
-            }
-        } catch (NotFoundException | NumberFormatException e) {
+            if (!router.dispatch(exchange)) throw new NotFoundException("Not Found");
+        } catch (NotFoundException e) {
             sendData(exchange, e.getMessage(), 404);
         } catch (TaskValidateException e) {
             sendData(exchange, e.getMessage(), 406);
@@ -70,4 +54,35 @@ public class TasksHandler extends BaseHttpHandler {
             sendData(exchange, "JSON syntax error.", 406);
         }
     }
+
+    private void getTasks(HttpExchange exchange) throws IOException {
+        TaskQuery query = readTaskQuery(exchange, TaskType.TASK);
+        String version = Long.toString(taskManager.getVersion());
+        if (sendNotModified(exchange, version)) return;
+        FieldProjection fields = readFieldProjection(exchange);
+        if (query == null && fields == null) {
+            sendCachedJson(exchange, tasksResponse, taskManager::getTasks);
+        } else {
+            // кэш только для ответа без параметров, отобранные и неполные ответы собираются заново
+            sendJson(exchange, query == null ? taskManager.getTasks() : taskManager.findTasks(query), 200, fields);
+        }
+    }
+
+    private void getTaskById(HttpExchange exchange, int id) throws IOException {
+        sendJson(exchange, taskManager.getTaskById(id), 200, readFieldProjection(exchange));
+    }
+
+    private void postTask(HttpExchange exchange) throws IOException {
+        Task task = readJson(exchange, Task.class);
+        if (taskManager.upsertTask(task)) {
+            sendData(exchange, 201);
+        } else {
+            sendJson(exchange, task, 201);
+        }
+    }
+
+    private void deleteTask(HttpExchange exchange, int id) throws IOException {
+        taskManager.deleteTaskById(id);
+        sendData(exchange, 204);
+    }
 }
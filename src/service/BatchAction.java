@@ -0,0 +1,7 @@
+package service;
+
+public enum BatchAction {
+    CREATE,
+    UPDATE,
+    DELETE
+}
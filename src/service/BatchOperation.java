@@ -0,0 +1,88 @@
+package service;
+
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+/**
+ * Одна операция пакетного изменения задач: создание, обновление или удаление задачи, эпика или подзадачи
+ */
+public final class BatchOperation {
+    public static final int NO_EPIC_REF = -1; // подзадача ссылается на эпик по ID, а не на операцию пакета
+
+    private final BatchAction action;
+    private final TaskType type;
+    private final int id; // ID удаляемой задачи
+    private final Task task; // создаваемая или новая задача
+    private final int epicRef; // номер операции пакета, которая создает эпик подзадачи
+
+    private BatchOperation(BatchAction action, TaskType type, int id, Task task, int epicRef) {
+        this.action = action;
+        this.type = type;
+        this.id = id;
+        this.task = task;
+        this.epicRef = epicRef;
+    }
+
+    /**
+     * Создание задачи, эпика или подзадачи
+     *
+     * @param task задача
+     * @return операция
+     */
+    public static BatchOperation create(Task task) {
+        return new BatchOperation(BatchAction.CREATE, task.getType(), task.getId(), task, NO_EPIC_REF);
+    }
+
+    /**
+     * Создание подзадачи эпика, который создается в этом же пакете и ID которого еще неизвестен
+     *
+     * @param subtask подзадача
+     * @param epicRef номер более ранней операции пакета, которая создает эпик
+     * @return операция
+     */
+    public static BatchOperation create(Subtask subtask, int epicRef) {
+        return new BatchOperation(BatchAction.CREATE, TaskType.SUBTASK, subtask.getId(), subtask, epicRef);
+    }
+
+    /**
+     * Обновление задачи, эпика или подзадачи
+     *
+     * @param task новая задача с верным идентификатором
+     * @return операция
+     */
+    public static BatchOperation update(Task task) {
+        return new BatchOperation(BatchAction.UPDATE, task.getType(), task.getId(), task, NO_EPIC_REF);
+    }
+
+    /**
+     * Удаление задачи, эпика или подзадачи по ID
+     *
+     * @param type тип задачи
+     * @param id   ID задачи
+     * @return операция
+     */
+    public static BatchOperation delete(TaskType type, int id) {
+        return new BatchOperation(BatchAction.DELETE, type, id, null, NO_EPIC_REF);
+    }
+
+    public BatchAction getAction() {
+        return action;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public int getEpicRef() {
+        return epicRef;
+    }
+}
@@ -0,0 +1,11 @@
+package service;
+
+/**
+ * Подписчик на изменения задач менеджера
+ * вызывается в потоке, который изменяет менеджер (под его блокировкой), поэтому не должен блокироваться
+ * и выбрасывать исключения
+ */
+@FunctionalInterface
+public interface ChangeListener {
+    void onChange(TaskChange change);
+}
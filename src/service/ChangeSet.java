@@ -0,0 +1,57 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Изменения менеджера после заданной версии: задачи, эпики и подзадачи в текущем состоянии и удаленные задачи.
+ * Если журнал изменений уже не содержит всех изменений после этой версии, то изменения не заполняются
+ * и клиент должен заново загрузить все задачи (resync)
+ */
+public final class ChangeSet {
+    private final String syncToken; // токен синхронизации для следующего запроса изменений
+    private final long version; // версия менеджера, на которую получены изменения
+    private final boolean resync; // изменений недостаточно, нужна полная загрузка задач
+    private final List<Task> tasks = new ArrayList<>();
+    private final List<Epic> epics = new ArrayList<>();
+    private final List<Subtask> subtasks = new ArrayList<>();
+    private final List<TaskChange> deleted = new ArrayList<>();
+
+    ChangeSet(String syncToken, long version, boolean resync) {
+        this.syncToken = syncToken;
+        this.version = version;
+        this.resync = resync;
+    }
+
+    public String getSyncToken() {
+        return syncToken;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public List<Epic> getEpics() {
+        return epics;
+    }
+
+    public List<Subtask> getSubtasks() {
+        return subtasks;
+    }
+
+    public List<TaskChange> getDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,7 @@
+package service;
+
+public enum ChangeType {
+    ADD,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,135 @@
+package service;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасная история просмотров для многопоточного сервера.
+ * Просмотр не берет общую блокировку: он кладется в один из буферов (по потоку), а упорядоченный список
+ * истории обновляется пачками под блокировкой, когда буфер наполнится или историю запросят.
+ * Каждый просмотр помечается временем, поэтому при сливе буферов сохраняется порядок просмотров.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int DRAIN_THRESHOLD = 64; // после стольких просмотров в буфере пробуем слить буферы
+    private static final int MAX_PENDING = 16 * DRAIN_THRESHOLD; // дальше поток ждет блокировку и сливает сам
+
+    private final Stripe[] stripes; // буферы просмотров, поток всегда пишет в один и тот же буфер
+    private final ReentrantLock drainLock; // защищает history и слив буферов
+    private final InMemoryHistoryManager history; // упорядоченная история, доступ только под drainLock
+
+    public ConcurrentHistoryManager() {
+        this(InMemoryHistoryManager.UNLIMITED);
+    }
+
+    /**
+     * Конструктор истории просмотров с ограничением размера
+     *
+     * @param capacity максимальное количество задач в истории, InMemoryHistoryManager.UNLIMITED - без ограничений
+     */
+    public ConcurrentHistoryManager(int capacity) {
+        history = new InMemoryHistoryManager(capacity);
+        drainLock = new ReentrantLock();
+        // количество буферов - степень двойки не меньше количества ядер, чтобы номер буфера брать по маске
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+        stripe.views.offer(new View(task, System.nanoTime()));
+        int pending = stripe.pending.incrementAndGet();
+        if (pending >= MAX_PENDING) { // буферы никто не сливает - не даем им расти бесконечно
+            drainLock.lock();
+        } else if (pending < DRAIN_THRESHOLD || !drainLock.tryLock()) {
+            return;
+        }
+        try {
+            drainBuffers();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.getHistory(limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        drainLock.lock();
+        try {
+            // сначала применяем накопленные просмотры, иначе удаленная задача вернется в историю при сливе
+            drainBuffers();
+            history.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // перенос просмотров из всех буферов в историю в порядке времени просмотра, вызывается под drainLock
+    private void drainBuffers() {
+        List<View> views = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            View view;
+            while ((view = stripe.views.poll()) != null) {
+                stripe.pending.decrementAndGet();
+                views.add(view);
+            }
+        }
+        if (views.isEmpty()) return;
+        views.sort(Comparator.comparingLong(view -> view.time));
+        for (View view : views) {
+            history.add(view.task);
+        }
+    }
+
+    // просмотр задачи с временем просмотра
+    static class View {
+        final Task task;
+        final long time;
+
+        View(Task task, long time) {
+            this.task = task;
+            this.time = time;
+        }
+    }
+
+    // буфер просмотров одной группы потоков
+    static class Stripe {
+        final Queue<View> views = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+    }
+}
@@ -0,0 +1,250 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Потокобезопасная обертка над менеджером задач для многопоточного сервера.
+ * Изменения выполняются под блокировкой записи, чтение (в том числе получение задачи по ID) - под блокировкой
+ * чтения, поэтому запросы на чтение выполняются параллельно.
+ * Получение задачи по ID записывает просмотр в историю под блокировкой чтения, поэтому история просмотров
+ * менеджера должна быть потокобезопасной (например, {@link ConcurrentHistoryManager} или
+ * {@link SessionHistoryManager}).
+ * Чтение возвращает копии задач, сделанные под блокировкой чтения: менеджер меняет задачи (например, статус и
+ * время эпика) на месте, а ответ сервера сериализуется уже после снятия блокировки.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    private final TaskManager manager; // менеджер, к которому обращения идут только под блокировкой
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    public ConcurrentTaskManager(TaskManager manager) {
+        this.manager = manager;
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        readLock = lock.readLock();
+        writeLock = lock.writeLock();
+    }
+
+    @Override
+    public void addTask(Task task) {
+        write(() -> manager.addTask(task));
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        write(() -> manager.addEpic(epic));
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) {
+        write(() -> manager.addSubtask(subtask));
+    }
+
+    @Override
+    public void importTasks(List<Task> newTasks) {
+        write(() -> manager.importTasks(newTasks));
+    }
+
+    @Override
+    public List<Integer> applyBatch(List<BatchOperation> operations) {
+        return write(() -> manager.applyBatch(operations));
+    }
+
+    @Override
+    public void updateTask(Task newTask) {
+        write(() -> manager.updateTask(newTask));
+    }
+
+    @Override
+    public void updateEpic(Epic newEpic) {
+        write(() -> manager.updateEpic(newEpic));
+    }
+
+    @Override
+    public void updateSubtask(Subtask newSubtask) {
+        write(() -> manager.updateSubtask(newSubtask));
+    }
+
+    // проверка существования и изменение под одной блокировкой записи
+    @Override
+    public boolean upsertTask(Task task) {
+        return write(() -> manager.upsertTask(task));
+    }
+
+    @Override
+    public boolean upsertEpic(Epic epic) {
+        return write(() -> manager.upsertEpic(epic));
+    }
+
+    @Override
+    public boolean upsertSubtask(Subtask subtask) {
+        return write(() -> manager.upsertSubtask(subtask));
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return read(() -> copyTasks(manager.getTasks()));
+    }
+
+    @Override
+    public Task getTaskById(int taskId) {
+        return read(() -> copy(manager.getTaskById(taskId)));
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return read(() -> manager.getEpics().stream().map(Epic::new).toList());
+    }
+
+    @Override
+    public Epic getEpicById(int epicId) {
+        return read(() -> new Epic(manager.getEpicById(epicId)));
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return read(() -> manager.getSubtasks().stream().map(Subtask::new).toList());
+    }
+
+    @Override
+    public Subtask getSubtaskById(int subtaskId) {
+        return read(() -> new Subtask(manager.getSubtaskById(subtaskId)));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(Epic epic) {
+        return read(() -> manager.getEpicSubtasks(epic).stream().map(Subtask::new).toList());
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        write(() -> manager.deleteTaskById(id));
+    }
+
+    @Override
+    public void deleteTasks() {
+        write(manager::deleteTasks);
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        write(() -> manager.deleteEpicById(id));
+    }
+
+    @Override
+    public void deleteEpics() {
+        write(manager::deleteEpics);
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        write(() -> manager.deleteSubtaskById(id));
+    }
+
+    @Override
+    public void deleteSubtasks() {
+        write(manager::deleteSubtasks);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return read(() -> copyTasks(manager.getHistory()));
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return read(() -> copyTasks(manager.getHistory(limit)));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(() -> copyTasks(manager.getPrioritizedTasks()));
+    }
+
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        return read(() -> copyTasks(manager.findTasks(query)));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(TaskQuery query) {
+        return read(() -> copyTasks(manager.getPrioritizedTasks(query)));
+    }
+
+    // версия читается без блокировки, чтобы проверка актуальности данных клиента не ждала изменений
+    @Override
+    public long getVersion() {
+        return manager.getVersion();
+    }
+
+    // подписчики вызываются из менеджера под блокировкой записи
+    @Override
+    public void addChangeListener(ChangeListener listener) {
+        manager.addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ChangeListener listener) {
+        manager.removeChangeListener(listener);
+    }
+
+    @Override
+    public String getSyncToken() {
+        return manager.getSyncToken();
+    }
+
+    @Override
+    public ChangeSet getChangesSince(String since) {
+        return read(() -> {
+            ChangeSet changeSet = manager.getChangesSince(since);
+            changeSet.getTasks().replaceAll(ConcurrentTaskManager::copy);
+            changeSet.getEpics().replaceAll(Epic::new);
+            changeSet.getSubtasks().replaceAll(Subtask::new);
+            return changeSet;
+        });
+    }
+
+    // копия задачи своего класса
+    private static Task copy(Task task) {
+        if (task instanceof Epic epic) return new Epic(epic);
+        if (task instanceof Subtask subtask) return new Subtask(subtask);
+        return new Task(task);
+    }
+
+    private static List<Task> copyTasks(List<Task> tasks) {
+        return tasks.stream().map(ConcurrentTaskManager::copy).toList();
+    }
+
+    private <T> T read(Supplier<T> action) {
+        readLock.lock();
+        try {
+            return action.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> action) {
+        writeLock.lock();
+        try {
+            return action.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
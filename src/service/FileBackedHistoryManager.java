@@ -0,0 +1,201 @@
+package service;
+
+import exception.ManagerSaveException;
+import model.Task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * История просмотров с журналом в файле, чтобы история сохранялась между перезапусками.
+ * Журнал только дописывается: просмотр - строка с ID задачи, удаление из истории - строка с ID со знаком минус.
+ * Когда журнал становится заметно больше самой истории, он переписывается заново (сжимается)
+ * только с текущей историей. Загрузка журнала его не переписывает, если он не разросся, поэтому загрузка
+ * (в том числе только для чтения и одновременная) файл журнала не меняет.
+ * Записи копятся в буфере и дописываются в файл одной записью при сохранении задач менеджером,
+ * при накоплении {@link #FLUSH_ENTRIES} записей, через {@link #FLUSH_INTERVAL_NANOS} после прошлой записи
+ * или при закрытии {@link #close()}. Файл открывается только на время дозаписи, поэтому после сжатия журнала
+ * другим менеджером (замены файла) записи попадают в новый файл, а не в удаленный.
+ * Все методы синхронизированы: журнал один, и записи в него из разных потоков не должны перемешиваться.
+ */
+public class FileBackedHistoryManager implements HistoryManager, AutoCloseable {
+    private static final int MIN_ENTRIES_TO_COMPACT = 1024; // журнал меньшего размера не сжимается
+    private static final int FLUSH_ENTRIES = 256; // записей в буфере, после которых буфер дописывается в файл
+    private static final long FLUSH_INTERVAL_NANOS = 1_000_000_000L; // максимальное время записи в буфере
+
+    private final HistoryManager history; // история в памяти
+    private final Path logFile; // файл журнала просмотров
+    private final StringBuilder buffer = new StringBuilder(); // записи, еще не дописанные в файл
+    private int bufferedEntries; // количество записей в буфере
+    private long lastFlushTime = System.nanoTime(); // время прошлой дозаписи в файл
+    private int logEntries; // количество записей в журнале
+    private int compactedEntries; // количество записей в журнале после последнего сжатия
+    private boolean truncatePending; // история очищена, файл журнала переписывается при следующей записи
+
+    /**
+     * Конструктор истории просмотров с журналом
+     *
+     * @param history история в памяти, в которую загружается и в которой ведется история
+     * @param logFile файл журнала просмотров
+     */
+    public FileBackedHistoryManager(HistoryManager history, Path logFile) {
+        this.history = history;
+        this.logFile = logFile;
+    }
+
+    /**
+     * Просмотр задачи: одна запись в буфер журнала
+     *
+     * @param task задача
+     */
+    @Override
+    public synchronized void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        history.add(task);
+        append(task.getId());
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return history.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(int limit) {
+        return history.getHistory(limit);
+    }
+
+    /**
+     * Удаление задачи из истории: одна запись в буфер журнала
+     * (удаления идут вместе с изменением задач, после которого менеджер сохраняет файл и сбрасывает журнал)
+     *
+     * @param id ID задачи
+     */
+    @Override
+    public synchronized void remove(int id) {
+        history.remove(id);
+        append(-id);
+    }
+
+    /**
+     * Дозапись буфера журнала в файл
+     */
+    public synchronized void flush() {
+        lastFlushTime = System.nanoTime();
+        if (buffer.isEmpty() && !truncatePending) return;
+        try {
+            Files.writeString(logFile, buffer, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    truncatePending ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи журнала истории просмотров!");
+        }
+        buffer.setLength(0);
+        bufferedEntries = 0;
+        truncatePending = false;
+    }
+
+    /**
+     * Дозапись оставшихся в буфере записей в файл, после закрытия журналом можно пользоваться дальше
+     */
+    @Override
+    public synchronized void close() {
+        flush();
+    }
+
+    /**
+     * Очистка истории и журнала: файл журнала не меняется сразу, а переписывается при следующей записи
+     * (вместе с первым сохранением задач менеджером)
+     */
+    public synchronized void clear() {
+        for (Task task : history.getHistory()) {
+            history.remove(task.getId());
+        }
+        buffer.setLength(0);
+        bufferedEntries = 0;
+        logEntries = 0;
+        compactedEntries = 0;
+        truncatePending = true;
+    }
+
+    /**
+     * Восстановление истории из журнала, журнал сжимается, только если он заметно больше истории
+     * записи о задачах, которых уже нет, и поврежденные записи (например, недописанная последняя строка) пропускаются
+     *
+     * @param taskById поиск задачи по ID, возвращает null, если задачи нет
+     */
+    public synchronized void restore(IntFunction<Task> taskById) {
+        int entries = 0;
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                entries++;
+                int id;
+                try {
+                    id = Integer.parseInt(line);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (id < 0) {
+                    history.remove(-id);
+                    continue;
+                }
+                Task task = taskById.apply(id);
+                if (task != null) history.add(task);
+            }
+        } catch (NoSuchFileException e) {
+            return; // журнала еще нет - история пустая
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала истории просмотров!");
+        }
+        logEntries = entries;
+        compactedEntries = history.getHistory().size();
+        if (logEntries > Math.max(MIN_ENTRIES_TO_COMPACT, 2 * compactedEntries)) compact();
+    }
+
+    // запись в буфер журнала, при разрастании журнала - сжатие
+    private void append(int entry) {
+        buffer.append(entry).append('\n');
+        if (++logEntries > Math.max(MIN_ENTRIES_TO_COMPACT, 2 * compactedEntries)) {
+            compact();
+        } else if (++bufferedEntries >= FLUSH_ENTRIES || System.nanoTime() - lastFlushTime >= FLUSH_INTERVAL_NANOS) {
+            flush();
+        }
+    }
+
+    // перезапись журнала только текущей историей: сначала во временный файл, затем замена журнала
+    private void compact() {
+        List<Task> tasks = history.getHistory();
+        // записи буфера уже учтены в текущей истории
+        buffer.setLength(0);
+        bufferedEntries = 0;
+        truncatePending = false;
+        try {
+            // у каждого сжатия свой временный файл: один журнал могут одновременно загружать несколько менеджеров
+            Path tmpFile = Files.createTempFile(logFile.toAbsolutePath().getParent(), logFile.getFileName() + ".",
+                    ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+                for (Task task : tasks) {
+                    writer.write(Integer.toString(task.getId()));
+                    writer.write('\n');
+                }
+            }
+            Files.move(tmpFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сжатия журнала истории просмотров!");
+        }
+        logEntries = tasks.size();
+        compactedEntries = tasks.size();
+    }
+}
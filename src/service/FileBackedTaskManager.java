@@ -4,6 +4,9 @@ import exception.ManagerSaveException;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import utils.CsvField;
+import utils.CsvSchema;
+import utils.CsvWriter;
 import utils.FileCsvUtils;
 
 import java.io.*;
@@ -13,14 +16,36 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
-    private String path; // путь и наименование файла для сохранения
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String HISTORY_FILE_SUFFIX = ".history"; // журнал истории хранится рядом с файлом задач
+    private final FileBackedHistoryManager historyLog; // история просмотров с журналом в файле
+    private final String path; // путь и наименование файла для сохранения
+    private boolean inBatch; // во время пакетного изменения файл сохраняется один раз после всего пакета
 
+    /**
+     * Конструктор нового менеджера без задач: журнал истории, оставшийся от прежних задач этого файла,
+     * очищается при первом сохранении задач, иначе при загрузке его просмотры попали бы на новые задачи
+     * с теми же ID
+     *
+     * @param fileName файл для сохранения задач
+     */
     FileBackedTaskManager(String fileName) {
-        if (!fileName.isBlank()) {
-            path = fileName;
-        }
+        this(fileName, newHistoryLog(fileName));
+        historyLog.clear();
+    }
+
+    private FileBackedTaskManager(String fileName, FileBackedHistoryManager historyLog) {
+        super(historyLog);
+        this.historyLog = historyLog;
+        path = fileName;
+    }
+
+    private static FileBackedHistoryManager newHistoryLog(String fileName) {
+        if (fileName == null || fileName.isBlank()) throw new IllegalArgumentException("File name is blank.");
+        return new FileBackedHistoryManager(Managers.getDefaultHistory(), Path.of(fileName + HISTORY_FILE_SUFFIX));
     }
 
     // еще один main для тестирования класса
@@ -90,16 +115,18 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
      * @return менеджер задач
      */
     public static FileBackedTaskManager loadFromFile(String fileName) {
-        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(fileName);
+        // журнал истории не очищается: из него восстанавливаются просмотры загруженных задач
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(fileName, newHistoryLog(fileName));
 
         int maxTaskId = 0;
         try (BufferedReader fileReader = new BufferedReader(new FileReader(fileName, StandardCharsets.UTF_8))) {
 
-            FileCsvUtils.checkHeader(fileReader); // проверяем заголовок файла
+            CsvSchema schema = FileCsvUtils.checkHeader(fileReader); // проверяем заголовок файла
 
-            // читаем построчно файл, разбираем строки и создаем задачи прямо в HashMap
-            while (fileReader.ready()) {
-                Task task = FileCsvUtils.fromString(fileReader.readLine());
+            // читаем построчно файл, разбираем записи и создаем задачи прямо в HashMap
+            String record;
+            while ((record = FileCsvUtils.readRecord(fileReader)) != null) {
+                Task task = FileCsvUtils.fromString(record, schema);
                 int taskId = task.getId();
                 switch (task.getType()) {
                     case TASK -> {
@@ -125,9 +152,28 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         }
 
         fileBackedTaskManager.taskId = maxTaskId;
+        // восстановим историю просмотров из журнала, просмотры удаленных задач пропускаются
+        fileBackedTaskManager.historyLog.restore(fileBackedTaskManager::findTask);
         return fileBackedTaskManager;
     }
 
+    /**
+     * Загрузка из файла CSV только указанных полей задач без создания менеджера,
+     * например, для отчетов, которым нужны только ID, статусы и время задач
+     * тип и ID задачи загружаются всегда, поля не из списка остаются пустыми и не декодируются
+     *
+     * @param fileName файл с задачами в формате CSV
+     * @param fields   поля, которые нужно загрузить
+     * @return список задач, эпиков и подзадач в порядке следования в файле
+     */
+    public static List<Task> loadProjectionFromFile(String fileName, Set<CsvField> fields) {
+        try (BufferedReader fileReader = new BufferedReader(new FileReader(fileName, StandardCharsets.UTF_8))) {
+            return FileCsvUtils.readTasks(fileReader, fields);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла!");
+        }
+    }
+
     /**
      * Добавление обычной задачи
      *
@@ -161,6 +207,36 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         save();
     }
 
+    /**
+     * Пакетный импорт задач с одним сохранением в файл
+     *
+     * @param newTasks список задач
+     */
+    @Override
+    public void importTasks(List<Task> newTasks) {
+        super.importTasks(newTasks);
+        save();
+    }
+
+    /**
+     * Пакетное изменение задач с одним сохранением в файл
+     *
+     * @param operations операции пакета
+     * @return ID задачи каждой операции
+     */
+    @Override
+    public List<Integer> applyBatch(List<BatchOperation> operations) {
+        List<Integer> results;
+        inBatch = true;
+        try {
+            results = super.applyBatch(operations);
+        } finally {
+            inBatch = false;
+        }
+        save();
+        return results;
+    }
+
     /**
      * Обновление обычной задачи
      *
@@ -250,23 +326,42 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         save();
     }
 
+    /**
+     * Дозапись в журнал просмотров, которые еще в буфере: просмотры без изменения задач сохраняются
+     * в журнал не сразу, а порциями
+     */
+    @Override
+    public void close() {
+        historyLog.close();
+    }
+
     /**
      * Метод сохранения состояния менеджера в файл со всеми задачами
      */
     private void save() {
-        try (BufferedWriter fileWriter = new BufferedWriter(new FileWriter(path, StandardCharsets.UTF_8))) {
-            fileWriter.write("type,id,name,description,status,epic,starttime,duration,endtime\n");
-            for (Task task : getTasks()) {
-                fileWriter.write(task.toCsvString());
+        if (inBatch) return; // операции пакета сохраняются вместе после всего пакета
+        try (CsvWriter csvWriter = new CsvWriter(new FileWriter(path, StandardCharsets.UTF_8))) {
+            csvWriter.writeHeader();
+            for (Task task : tasks.values()) {
+                csvWriter.writeTask(task);
             }
-            for (Task task : getEpics()) {
-                fileWriter.write(task.toCsvString());
+            for (Task task : epics.values()) {
+                csvWriter.writeTask(task);
             }
-            for (Task task : getSubtasks()) {
-                fileWriter.write(task.toCsvString());
+            for (Task task : subtasks.values()) {
+                csvWriter.writeTask(task);
             }
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка записи файла!");
         }
+        historyLog.flush(); // удаления из истории попадают в журнал вместе с сохранением задач
+    }
+
+    // поиск задачи любого типа по ID без записи в историю просмотров
+    private Task findTask(int id) {
+        Task task = tasks.get(id);
+        if (task == null) task = epics.get(id);
+        if (task == null) task = subtasks.get(id);
+        return task;
     }
 }
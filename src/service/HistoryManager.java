@@ -9,5 +9,7 @@ public interface HistoryManager {
 
     List<Task> getHistory();
 
+    List<Task> getHistory(int limit);
+
     void remove(int id);
 }
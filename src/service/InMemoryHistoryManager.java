@@ -3,17 +3,33 @@ package service;
 import model.Task;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
+    public static final int UNLIMITED = 0; // размер истории не ограничен
+
     private final Map<Integer, Node> historyEntries;
+    private final int capacity; // максимальное количество задач в истории, UNLIMITED - без ограничений
     private Node headHistoryNode; // указатель на начало списка истории просмотров
     private Node tailHistoryNode; // указатель на конец списка истории просмотров
 
     public InMemoryHistoryManager() {
+        this(UNLIMITED);
+    }
+
+    /**
+     * Конструктор истории просмотров с ограничением размера
+     * при переполнении из истории удаляется самый давний просмотр
+     *
+     * @param capacity максимальное количество задач в истории, UNLIMITED - без ограничений
+     */
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("History capacity must not be negative: " + capacity);
+        this.capacity = capacity;
         historyEntries = new HashMap<>();
     }
 
@@ -28,6 +44,11 @@ public class InMemoryHistoryManager implements HistoryManager {
 
         linkLast(task); // добавим ноду в конец списка
         historyEntries.put(idNewTask, tailHistoryNode); // добавим или обновим связку ID с узлом
+
+        // если история переполнена, то удалим самый давний просмотр из начала списка
+        if (capacity != UNLIMITED && historyEntries.size() > capacity) {
+            remove(headHistoryNode.task.getId());
+        }
     }
 
     @Override
@@ -35,6 +56,25 @@ public class InMemoryHistoryManager implements HistoryManager {
         return getTasks();
     }
 
+    /**
+     * Получение последних просмотров
+     *
+     * @param limit максимальное количество задач
+     * @return не более limit последних просмотренных задач в порядке просмотра
+     */
+    @Override
+    public List<Task> getHistory(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("History limit must not be negative: " + limit);
+        // идем с конца списка, поэтому обходятся только нужные узлы
+        Node node = tailHistoryNode;
+        Task[] lastViews = new Task[Math.min(limit, historyEntries.size())];
+        for (int i = lastViews.length - 1; i >= 0; i--) {
+            lastViews[i] = node.task;
+            node = node.prev;
+        }
+        return new ArrayList<>(Arrays.asList(lastViews));
+    }
+
     @Override
     public void remove(int taskId) {
         Node foundNode = historyEntries.get(taskId); // ищем узел в связке
@@ -7,24 +7,68 @@ import model.*;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class InMemoryTaskManager implements TaskManager {
+    private static final int DEFAULT_CHANGE_LOG_CAPACITY = 1024; // изменений в журнале для синхронизации клиентов
     protected final HashMap<Integer, Task> tasks; // список обычных задач
     protected final HashMap<Integer, Epic> epics; // список эпиков
     protected final HashMap<Integer, Subtask> subtasks; // список подзадач
-    protected final Set<Task> sortedTasks; // для хранения зада в отсортированном виде по времени начала в
+    protected final NavigableSet<Task> sortedTasks; // для хранения зада в отсортированном виде по времени начала в
     private final HistoryManager historyManager; // объект класса для работы с историей просмотров
     protected int taskId; // уникальный идентификатор задачи
+    // версия данных менеджера: номер последнего изменения задачи, увеличивается только после того, как изменение
+    // сделано и передано подписчикам, поэтому прочитанная до данных версия никогда не новее самих данных
+    private final AtomicLong version = new AtomicLong();
+    // эпоха версий: версии начинаются с 0 в каждом новом менеджере (в том числе загруженном из файла после
+    // перезапуска), поэтому версия для синхронизации клиентов имеет смысл только вместе с эпохой
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    // ID задач, удаленных во время пакетного изменения: из истории они удаляются только после успеха пакета,
+    // не null только во время выполнения пакета
+    private List<Integer> batchHistoryRemovals;
+    // подписчики на изменения задач, список копируется только при подписке, а не при каждом изменении
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    // изменения во время пакета, подписчикам передаются только после успеха пакета
+    private List<TaskChange> batchChanges;
+    // журнал последних изменений для синхронизации клиентов по версии, старые изменения вытесняются
+    private final ArrayDeque<TaskChange> changeLog;
+    private final int changeLogCapacity;
+    private long truncatedVersion; // версия последнего вытесненного из журнала изменения
 
     public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    /**
+     * Конструктор менеджера с заданной историей просмотров, например, ограниченной по размеру
+     *
+     * @param historyManager менеджер истории просмотров
+     */
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, DEFAULT_CHANGE_LOG_CAPACITY);
+    }
+
+    /**
+     * Конструктор менеджера с заданным размером журнала изменений
+     *
+     * @param historyManager    менеджер истории просмотров
+     * @param changeLogCapacity максимальное количество изменений в журнале для {@link #getChangesSince(String)}
+     */
+    public InMemoryTaskManager(HistoryManager historyManager, int changeLogCapacity) {
+        if (changeLogCapacity <= 0) throw new IllegalArgumentException("Change log capacity must be positive: "
+                + changeLogCapacity);
         taskId = 0;
         tasks = new HashMap<>();
         epics = new HashMap<>();
         subtasks = new HashMap<>();
-        historyManager = Managers.getDefaultHistory();
+        this.historyManager = historyManager;
         // компаратор для сортировки задач по времени начала
         Comparator<Task> startTimeComparator = Comparator.comparing(Task::getStartTime);
         sortedTasks = new TreeSet<>(startTimeComparator);
+        this.changeLogCapacity = changeLogCapacity;
+        changeLog = new ArrayDeque<>(changeLogCapacity);
     }
 
     /**
@@ -38,6 +82,7 @@ public class InMemoryTaskManager implements TaskManager {
         validateAndAddToSortedTaskList(task);
         setId(task);
         tasks.put(task.getId(), task);
+        notifyChange(ChangeType.ADD, TaskType.TASK, task.getId());
     }
 
     /**
@@ -51,6 +96,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (!epic.getSubtasksId().isEmpty()) throw new NotFoundException("A new epic cannot have subtasks..");
         setId(epic);
         epics.put(epic.getId(), epic);
+        notifyChange(ChangeType.ADD, TaskType.EPIC, epic.getId());
     }
 
     /**
@@ -70,6 +116,154 @@ public class InMemoryTaskManager implements TaskManager {
         epic.addSubtaskId(subtask.getId());
         updateEpicStatus(epic); // обновим статус эпика
         updateEpicTime(epic);
+        notifyChange(ChangeType.ADD, TaskType.SUBTASK, subtask.getId());
+        notifyChange(ChangeType.UPDATE, TaskType.EPIC, epic.getId());
+    }
+
+    /**
+     * Пакетный импорт задач, эпиков и подзадач с заданными ID
+     * сначала проверяется весь пакет (ID, эпики подзадач, пересечения по времени), и только потом
+     * задачи добавляются в менеджер, поэтому при ошибке менеджер остается без изменений
+     *
+     * @param newTasks список задач в любом порядке
+     */
+    @Override
+    public void importTasks(List<Task> newTasks) {
+        if (newTasks == null) throw new NotFoundException("Tasks is null.");
+
+        // проверка ID: они должны быть заданы и не должны повторяться ни в пакете, ни в менеджере
+        Set<Integer> newEpicsId = new HashSet<>();
+        Set<Integer> newTasksId = new HashSet<>();
+        for (Task task : newTasks) {
+            if (task == null) throw new NotFoundException("Task is null.");
+            int id = task.getId();
+            if (id <= 0) throw new TaskValidateException("Imported task must have ID, not " + id + ".");
+            if (tasks.containsKey(id) || epics.containsKey(id) || subtasks.containsKey(id) || !newTasksId.add(id))
+                throw new TaskValidateException("Task with ID=" + id + " already exists.");
+            if (task.getType() == TaskType.EPIC) {
+                if (!((Epic) task).getSubtasksId().isEmpty())
+                    throw new NotFoundException("A new epic cannot have subtasks..");
+                newEpicsId.add(id);
+            }
+        }
+        for (Task task : newTasks) {
+            if (task.getType() != TaskType.SUBTASK) continue;
+            int epicId = ((Subtask) task).getEpicId();
+            if (!epics.containsKey(epicId) && !newEpicsId.contains(epicId))
+                throw new NotFoundException("Subtasks epic with ID=" + epicId + " is not found.");
+        }
+        validateRangesOfBatch(newTasks);
+
+        // весь пакет корректен, добавляем задачи в менеджер
+        Set<Epic> changedEpics = new HashSet<>();
+        for (Task task : newTasks) {
+            switch (task.getType()) {
+                case TASK -> tasks.put(task.getId(), task);
+                case EPIC -> {
+                    epics.put(task.getId(), (Epic) task);
+                    changedEpics.add((Epic) task);
+                }
+                case SUBTASK -> subtasks.put(task.getId(), (Subtask) task);
+            }
+            if (task.getType() != TaskType.EPIC && task.getStartTime() != null) sortedTasks.add(task);
+            taskId = Math.max(taskId, task.getId());
+        }
+        for (Task task : newTasks) {
+            if (task.getType() != TaskType.SUBTASK) continue;
+            Epic epic = epics.get(((Subtask) task).getEpicId());
+            epic.addSubtaskId(task.getId());
+            changedEpics.add(epic);
+        }
+        changedEpics.forEach(epic -> {
+            updateEpicStatus(epic);
+            updateEpicTime(epic);
+        });
+        newTasks.forEach(task -> notifyChange(ChangeType.ADD, task.getType(), task.getId()));
+        // эпики, которые были в менеджере до импорта, изменились из-за новых подзадач
+        changedEpics.stream().filter(epic -> !newEpicsId.contains(epic.getId()))
+                .forEach(epic -> notifyChange(ChangeType.UPDATE, TaskType.EPIC, epic.getId()));
+    }
+
+    /**
+     * Пакетное изменение задач: операции выполняются по порядку как одно целое
+     * во время пакета пересечения по времени не проверяются для каждой операции - после всех операций
+     * сортированный список задач строится заново с одной проверкой пересечений,
+     * при ошибке любой операции или пересечении менеджер возвращается в состояние до пакета
+     *
+     * @param operations операции пакета
+     * @return ID задачи каждой операции (для созданных задач - новые ID)
+     */
+    @Override
+    public List<Integer> applyBatch(List<BatchOperation> operations) {
+        if (operations == null) throw new NotFoundException("Operations is null.");
+
+        BatchSnapshot snapshot = new BatchSnapshot();
+        batchHistoryRemovals = new ArrayList<>();
+        batchChanges = new ArrayList<>();
+        List<Integer> results = new ArrayList<>(operations.size());
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                try {
+                    results.add(applyOperation(operations.get(i), operations, results));
+                } catch (NotFoundException e) {
+                    throw new NotFoundException("Operation " + i + ": " + e.getMessage());
+                } catch (TaskValidateException e) {
+                    throw new TaskValidateException("Operation " + i + ": " + e.getMessage());
+                }
+            }
+            rebuildSortedTasks();
+        } catch (RuntimeException e) {
+            batchHistoryRemovals = null;
+            batchChanges = null;
+            snapshot.restore();
+            throw e;
+        }
+        List<Integer> removedIds = batchHistoryRemovals;
+        batchHistoryRemovals = null;
+        removedIds.forEach(historyManager::remove);
+        List<TaskChange> changes = batchChanges;
+        batchChanges = null;
+        changes.forEach(change -> publishChange(change.getChange(), change.getType(), change.getId()));
+        return results;
+    }
+
+    // выполнение одной операции пакета, возвращает ID задачи операции
+    private int applyOperation(BatchOperation operation, List<BatchOperation> operations, List<Integer> results) {
+        if (operation == null) throw new NotFoundException("Operation is null.");
+        if (operation.getAction() == BatchAction.DELETE) {
+            int id = operation.getId();
+            switch (operation.getType()) {
+                case TASK -> deleteTaskById(id);
+                case EPIC -> deleteEpicById(id);
+                case SUBTASK -> deleteSubtaskById(id);
+            }
+            return id;
+        }
+
+        Task task = operation.getTask();
+        if (task == null) throw new NotFoundException("Task is null.");
+        int epicRef = operation.getEpicRef();
+        if (epicRef != BatchOperation.NO_EPIC_REF) {
+            // подзадача эпика, созданного более ранней операцией пакета
+            if (epicRef < 0 || epicRef >= results.size() || operations.get(epicRef).getAction() != BatchAction.CREATE
+                    || operations.get(epicRef).getType() != TaskType.EPIC)
+                throw new TaskValidateException("Epic reference must point to an earlier epic creation.");
+            ((Subtask) task).setEpicId(results.get(epicRef));
+        }
+        if (operation.getAction() == BatchAction.CREATE) {
+            switch (task.getType()) {
+                case TASK -> addTask(task);
+                case EPIC -> addEpic((Epic) task);
+                case SUBTASK -> addSubtask((Subtask) task);
+            }
+        } else {
+            switch (task.getType()) {
+                case TASK -> updateTask(task);
+                case EPIC -> updateEpic((Epic) task);
+                case SUBTASK -> updateSubtask((Subtask) task);
+            }
+        }
+        return task.getId();
     }
 
     /**
@@ -84,6 +278,7 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException("Task with ID=" + task.getId() + " is not found.");
         validateAndAddToSortedTaskList(task);
         tasks.replace(task.getId(), task);
+        notifyChange(ChangeType.UPDATE, TaskType.TASK, task.getId());
     }
 
     /**
@@ -117,6 +312,7 @@ public class InMemoryTaskManager implements TaskManager {
         oldSubtasksId.stream().filter(oldSubtaskId -> !newSubtasksId.contains(oldSubtaskId)).forEach(oldSubtaskId -> {
             sortedTasks.removeIf(task -> task.getId() == oldSubtaskId);
             subtasks.remove(oldSubtaskId);
+            notifyChange(ChangeType.DELETE, TaskType.SUBTASK, oldSubtaskId);
         });
 
         // обновим статус эпика
@@ -125,6 +321,7 @@ public class InMemoryTaskManager implements TaskManager {
         updateEpicTime(epic);
         // заменим эпик в мапе
         epics.replace(epic.getId(), epic);
+        notifyChange(ChangeType.UPDATE, TaskType.EPIC, epic.getId());
     }
 
     /**
@@ -146,6 +343,56 @@ public class InMemoryTaskManager implements TaskManager {
         subtasks.replace(subtask.getId(), subtask);
         updateEpicStatus(epic); // обязательно обновим статус эпика
         updateEpicTime(epic); // обновить общее время выполнения задач эпика
+        notifyChange(ChangeType.UPDATE, TaskType.SUBTASK, subtask.getId());
+        notifyChange(ChangeType.UPDATE, TaskType.EPIC, epic.getId());
+    }
+
+    /**
+     * Добавление или обновление обычной задачи: одна проверка по ID без записи в историю просмотров
+     *
+     * @param task задача
+     * @return true, если задача добавлена, false - если обновлена
+     */
+    @Override
+    public boolean upsertTask(Task task) {
+        if (task != null && tasks.containsKey(task.getId())) {
+            updateTask(task);
+            return false;
+        }
+        addTask(task);
+        return true;
+    }
+
+    /**
+     * Добавление или обновление эпика
+     *
+     * @param epic эпик
+     * @return true, если эпик добавлен, false - если обновлен
+     */
+    @Override
+    public boolean upsertEpic(Epic epic) {
+        if (epic != null && epics.containsKey(epic.getId())) {
+            updateEpic(epic);
+            return false;
+        }
+        addEpic(epic);
+        return true;
+    }
+
+    /**
+     * Добавление или обновление подзадачи
+     *
+     * @param subtask подзадача
+     * @return true, если подзадача добавлена, false - если обновлена
+     */
+    @Override
+    public boolean upsertSubtask(Subtask subtask) {
+        if (subtask != null && subtasks.containsKey(subtask.getId())) {
+            updateSubtask(subtask);
+            return false;
+        }
+        addSubtask(subtask);
+        return true;
     }
 
     /**
@@ -237,9 +484,10 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteTaskById(int id) {
         if (!tasks.containsKey(id)) throw new NotFoundException("Task with ID=" + id + " not found.");
-        historyManager.remove(id); // удаление задачи из истории просмотров
+        removeFromHistory(id); // удаление задачи из истории просмотров
         tasks.remove(id);
         sortedTasks.removeIf(task -> task.getId() == id);
+        notifyChange(ChangeType.DELETE, TaskType.TASK, id);
     }
 
     /**
@@ -247,8 +495,9 @@ public class InMemoryTaskManager implements TaskManager {
      */
     @Override
     public void deleteTasks() {
-        tasks.keySet().forEach(historyManager::remove);
+        tasks.keySet().forEach(this::removeFromHistory);
         sortedTasks.removeIf(task -> task.getType() == TaskType.TASK);
+        tasks.keySet().forEach(id -> notifyChange(ChangeType.DELETE, TaskType.TASK, id));
         tasks.clear();
     }
 
@@ -258,19 +507,21 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteEpicById(int id) {
         if (!epics.containsKey(id)) throw new NotFoundException("Epic with ID=" + id + " not found.");
-        historyManager.remove(id); // удаление эпика из истории просмотров
+        removeFromHistory(id); // удаление эпика из истории просмотров
         Epic epic = epics.get(id);
         // нужно удалить все подзадачи эпика вместе с самим эпиком
 
         for (int subtaskId : epic.getSubtasksId()) {
-            historyManager.remove(subtaskId); // удаление подзадач эпика из истории просмотров
+            removeFromHistory(subtaskId); // удаление подзадач эпика из истории просмотров
             if (subtasks.get(subtaskId).getStartTime() != null) {
                 sortedTasks.remove(subtasks.get(subtaskId));
             }
             subtasks.remove(subtaskId);
+            notifyChange(ChangeType.DELETE, TaskType.SUBTASK, subtaskId);
         }
 
         epics.remove(id);
+        notifyChange(ChangeType.DELETE, TaskType.EPIC, id);
     }
 
     /**
@@ -280,14 +531,16 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteEpics() {
         // удаление всех эпиков из истории просмотров
         for (int epicId : epics.keySet()) {
-            historyManager.remove(epicId);
+            removeFromHistory(epicId);
+            notifyChange(ChangeType.DELETE, TaskType.EPIC, epicId);
         }
 
         epics.clear();
 
         // удаление всех подзадач из истории просмотров
         for (int subtaskId : subtasks.keySet()) {
-            historyManager.remove(subtaskId);
+            removeFromHistory(subtaskId);
+            notifyChange(ChangeType.DELETE, TaskType.SUBTASK, subtaskId);
         }
 
         subtasks.clear(); // удаляем также и все подзадачи
@@ -303,7 +556,7 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteSubtaskById(int id) {
         if (!subtasks.containsKey(id)) throw new NotFoundException("Subtask with ID=" + id + " not found.");
 
-        historyManager.remove(id); // удаление подзадачи из истории просмотров
+        removeFromHistory(id); // удаление подзадачи из истории просмотров
 
         Subtask subtask = subtasks.get(id);
         if (subtask.getStartTime() != null) sortedTasks.remove(subtask);
@@ -311,6 +564,8 @@ public class InMemoryTaskManager implements TaskManager {
         subtasks.remove(id);
         updateEpicStatus(epic);
         updateEpicTime(epic);
+        notifyChange(ChangeType.DELETE, TaskType.SUBTASK, id);
+        notifyChange(ChangeType.UPDATE, TaskType.EPIC, epic.getId());
     }
 
     /**
@@ -319,9 +574,13 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteSubtasks() {
         // удаление всех подзадач из истории просмотров
-        subtasks.keySet().forEach(historyManager::remove);
+        subtasks.keySet().forEach(this::removeFromHistory);
         // удаление подзадач из сортированного списка
         sortedTasks.removeIf(task -> task.getType() == TaskType.SUBTASK);
+        subtasks.keySet().forEach(id -> notifyChange(ChangeType.DELETE, TaskType.SUBTASK, id));
+        // эпики изменились, только если у них были подзадачи
+        epics.values().stream().filter(epic -> !epic.getSubtasksId().isEmpty())
+                .forEach(epic -> notifyChange(ChangeType.UPDATE, TaskType.EPIC, epic.getId()));
         subtasks.clear();
         // обновим статус всех эпиков
         epics.values().forEach(epic -> {
@@ -335,11 +594,146 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(int limit) {
+        return historyManager.getHistory(limit);
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public String getSyncToken() {
+        return syncToken(version.get());
+    }
+
+    /**
+     * Подписка на изменения задач: подписчик вызывается после каждого успешного изменения,
+     * изменения пакета - после успеха всего пакета
+     *
+     * @param listener подписчик
+     */
+    @Override
+    public void addChangeListener(ChangeListener listener) {
+        if (listener == null) throw new NotFoundException("Listener is null.");
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Изменения после заданной версии из журнала изменений: журнал просматривается с конца только до этой версии,
+     * для каждой задачи берется последнее изменение
+     * если токен выдан другим менеджером (другая эпоха, например, до перезапуска), часть изменений уже вытеснена
+     * из журнала или версия больше текущей, то возвращается признак полной загрузки задач
+     *
+     * @param since токен синхронизации "эпоха-версия", после которого нужны изменения
+     * @return изменения
+     * @throws TaskValidateException если токен неверного формата
+     */
+    @Override
+    public ChangeSet getChangesSince(String since) {
+        int separator = since == null ? -1 : since.lastIndexOf('-');
+        if (separator < 0) throw new TaskValidateException("Wrong sync token: " + since + ".");
+        long sinceVersion;
+        try {
+            sinceVersion = Long.parseLong(since.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new TaskValidateException("Wrong sync token: " + since + ".");
+        }
+        long currentVersion = version.get();
+        String currentToken = syncToken(currentVersion);
+        if (!since.substring(0, separator).equals(epoch) || sinceVersion < truncatedVersion
+                || sinceVersion > currentVersion) {
+            return new ChangeSet(currentToken, currentVersion, true);
+        }
+        ChangeSet changeSet = new ChangeSet(currentToken, currentVersion, false);
+        Set<Integer> changedIds = new HashSet<>();
+        Iterator<TaskChange> iterator = changeLog.descendingIterator();
+        while (iterator.hasNext()) {
+            TaskChange change = iterator.next();
+            if (change.getVersion() <= sinceVersion) break;
+            if (!changedIds.add(change.getId())) continue; // более позднее изменение задачи уже учтено
+            if (change.getChange() == ChangeType.DELETE) {
+                changeSet.getDeleted().add(change);
+                continue;
+            }
+            switch (change.getType()) {
+                case TASK -> changeSet.getTasks().add(tasks.get(change.getId()));
+                case EPIC -> changeSet.getEpics().add(epics.get(change.getId()));
+                case SUBTASK -> changeSet.getSubtasks().add(subtasks.get(change.getId()));
+            }
+        }
+        return changeSet;
+    }
+
     @Override
     public List<Task> getPrioritizedTasks() {
         return sortedTasks.stream().toList();
     }
 
+    /**
+     * Отбор задач по условиям: интервал времени выбирается из отсортированного по времени начала списка
+     * за O(log n + k), подзадачи эпика - по списку подзадач эпика, остальное - проверкой всех задач
+     *
+     * @param query условия отбора
+     * @return задачи, эпики и подзадачи, которые подходят под условия
+     */
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        if (query == null) throw new NotFoundException("Query is null.");
+        if (query.hasTimeRange() && query.getType() != TaskType.EPIC) return getPrioritizedTasks(query);
+        List<Task> result = new ArrayList<>();
+        if (query.getEpicId() != null) {
+            Epic epic = epics.get(query.getEpicId());
+            if (epic == null) return result;
+            for (int subtaskId : epic.getSubtasksId()) {
+                Subtask subtask = subtasks.get(subtaskId);
+                if (query.matches(subtask)) result.add(subtask);
+            }
+            return result;
+        }
+        TaskType type = query.getType();
+        if (type == null || type == TaskType.TASK) {
+            tasks.values().stream().filter(query::matches).forEach(result::add);
+        }
+        if (type == null || type == TaskType.EPIC) {
+            epics.values().stream().filter(query::matches).forEach(result::add);
+        }
+        if (type == null || type == TaskType.SUBTASK) {
+            subtasks.values().stream().filter(query::matches).forEach(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Отбор задач с временем начала по условиям в порядке времени начала
+     *
+     * @param query условия отбора
+     * @return задачи и подзадачи, которые подходят под условия
+     */
+    @Override
+    public List<Task> getPrioritizedTasks(TaskQuery query) {
+        if (query == null) throw new NotFoundException("Query is null.");
+        NavigableSet<Task> range = sortedTasks;
+        // границы интервала ищутся в дереве, дальше проверяются только задачи интервала
+        if (query.getFrom() != null) range = range.tailSet(startTimeProbe(query.getFrom()), true);
+        if (query.getTo() != null) range = range.headSet(startTimeProbe(query.getTo()), false);
+        return range.stream().filter(query::matches).toList();
+    }
+
+    // задача только с временем начала для поиска границы в отсортированном списке
+    private static Task startTimeProbe(LocalDateTime startTime) {
+        Task probe = new Task("", "");
+        probe.setStartTime(startTime);
+        return probe;
+    }
+
     /**
      * Генерация нового идентификатора задачи
      * с проверкой id по всем спискам
@@ -402,6 +796,7 @@ public class InMemoryTaskManager implements TaskManager {
      * @param task - задачи или подзадача
      */
     private void validateAndAddToSortedTaskList(Task task) {
+        if (batchHistoryRemovals != null) return; // во время пакета список строится заново после всех операций
         if (task.getStartTime() != null) {
             if (isNotIntersectRanges(task)) {
                 sortedTasks.add(task);
@@ -413,6 +808,83 @@ public class InMemoryTaskManager implements TaskManager {
         }
     }
 
+    /**
+     * Проверка пакета задач на пересечение по времени между собой и с задачами менеджера за один проход:
+     * задачи сортируются по времени начала, и каждая сравнивается с максимальным временем окончания предыдущих
+     *
+     * @param newTasks - пакет задач
+     */
+    private void validateRangesOfBatch(List<Task> newTasks) {
+        List<Task> timedTasks = new ArrayList<>(sortedTasks);
+        for (Task task : newTasks) {
+            if (task.getType() != TaskType.EPIC && task.getStartTime() != null) timedTasks.add(task);
+        }
+        timedTasks.sort(Comparator.comparing(Task::getStartTime));
+        validateSortedRanges(timedTasks);
+    }
+
+    /**
+     * Построение сортированного списка задач заново по всем задачам и подзадачам с одной проверкой пересечений
+     */
+    private void rebuildSortedTasks() {
+        List<Task> timedTasks = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            if (task.getStartTime() != null) timedTasks.add(task);
+        }
+        for (Task subtask : subtasks.values()) {
+            if (subtask.getStartTime() != null) timedTasks.add(subtask);
+        }
+        timedTasks.sort(Comparator.comparing(Task::getStartTime));
+        validateSortedRanges(timedTasks);
+        sortedTasks.clear();
+        sortedTasks.addAll(timedTasks);
+    }
+
+    // проверка пересечений задач, отсортированных по времени начала: каждая задача сравнивается
+    // с максимальным временем окончания предыдущих
+    private void validateSortedRanges(List<Task> timedTasks) {
+        LocalDateTime maxEndTime = null;
+        for (Task task : timedTasks) {
+            if (maxEndTime != null && !task.getStartTime().isAfter(maxEndTime)) {
+                throw new TaskValidateException("Time is crossing with an existing task!");
+            }
+            if (maxEndTime == null || task.getEndTime().isAfter(maxEndTime)) maxEndTime = task.getEndTime();
+        }
+    }
+
+    // изменение задачи: во время пакета откладывается до успеха пакета (версия назначается при публикации),
+    // иначе сразу записывается в журнал и передается подписчикам
+    private void notifyChange(ChangeType change, TaskType type, int id) {
+        if (batchChanges != null) {
+            batchChanges.add(new TaskChange(change, type, id, 0));
+        } else {
+            publishChange(change, type, id);
+        }
+    }
+
+    // изменение получает следующую версию, но версия менеджера меняется только после подписчиков: кэши ответов
+    // успевают сброситься до того, как запрос прочитает новую версию для своего ETag
+    private void publishChange(ChangeType change, TaskType type, int id) {
+        TaskChange taskChange = new TaskChange(change, type, id, version.get() + 1);
+        if (changeLog.size() == changeLogCapacity) truncatedVersion = changeLog.removeFirst().getVersion();
+        changeLog.addLast(taskChange);
+        try {
+            for (ChangeListener listener : changeListeners) {
+                listener.onChange(taskChange);
+            }
+        } finally {
+            version.set(taskChange.getVersion());
+        }
+    }
+
+    private void removeFromHistory(int id) {
+        if (batchHistoryRemovals != null) {
+            batchHistoryRemovals.add(id);
+        } else {
+            historyManager.remove(id);
+        }
+    }
+
     private boolean isNotIntersectRanges(Task newTask) {
         if (sortedTasks.isEmpty()) return true;
         return sortedTasks.stream().filter(task -> task.getId() != newTask.getId()).allMatch(task -> isNotIntersectRangesTwoTasks(task, newTask));
@@ -446,4 +918,67 @@ public class InMemoryTaskManager implements TaskManager {
             epic.setDuration(null);
         }
     }
+
+    /**
+     * Состояние менеджера перед пакетным изменением для отката при ошибке
+     * задачи и подзадачи при обновлении заменяются новыми объектами, поэтому достаточно копий мап,
+     * а эпики меняются на месте (подзадачи, статус и время), поэтому их состояние сохраняется отдельно
+     */
+    private class BatchSnapshot {
+        private final Map<Integer, Task> savedTasks = new HashMap<>(tasks);
+        private final Map<Integer, Epic> savedEpics = new HashMap<>(epics);
+        private final Map<Integer, Subtask> savedSubtasks = new HashMap<>(subtasks);
+        private final List<Task> savedSortedTasks = new ArrayList<>(sortedTasks);
+        private final List<EpicState> savedEpicStates = new ArrayList<>(epics.size());
+        private final int savedTaskId = taskId;
+
+        BatchSnapshot() {
+            epics.values().forEach(epic -> savedEpicStates.add(new EpicState(epic)));
+        }
+
+        void restore() {
+            tasks.clear();
+            tasks.putAll(savedTasks);
+            epics.clear();
+            epics.putAll(savedEpics);
+            subtasks.clear();
+            subtasks.putAll(savedSubtasks);
+            sortedTasks.clear();
+            sortedTasks.addAll(savedSortedTasks);
+            savedEpicStates.forEach(EpicState::restore);
+            taskId = savedTaskId;
+        }
+    }
+
+    // изменяемое состояние эпика
+    private static class EpicState {
+        private final Epic epic;
+        private final Set<Integer> subtasksId;
+        private final Status status;
+        private final LocalDateTime startTime;
+        private final Duration duration;
+        private final LocalDateTime endTime;
+
+        EpicState(Epic epic) {
+            this.epic = epic;
+            subtasksId = new HashSet<>(epic.getSubtasksId());
+            status = epic.getStatus();
+            startTime = epic.getStartTime();
+            duration = epic.getDuration();
+            endTime = epic.getEndTime();
+        }
+
+        void restore() {
+            epic.getSubtasksId().clear();
+            epic.getSubtasksId().addAll(subtasksId);
+            epic.setStatus(status);
+            epic.setStartTime(startTime);
+            epic.setDuration(duration);
+            epic.setEndTime(endTime);
+        }
+    }
+
+    private String syncToken(long version) {
+        return epoch + "-" + version;
+    }
 }
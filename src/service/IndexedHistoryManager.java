@@ -0,0 +1,244 @@
+package service;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * История просмотров на массивах без создания узлов списка.
+ * Каждая задача истории занимает слот: задача хранится в tasks[slot], ссылки на соседние слоты
+ * в prev[slot] и next[slot], а ID задачи связан со слотом в хэш-таблице на примитивных массивах.
+ * Повторный просмотр только перевязывает ссылки слота, освобожденные слоты переиспользуются,
+ * поэтому в установившемся режиме (и всегда при ограниченном размере) просмотр не создает объектов.
+ */
+public class IndexedHistoryManager implements HistoryManager {
+    private static final int NO_SLOT = -1; // признак отсутствия слота (конец списка, пустая ячейка)
+    private static final int INITIAL_SLOTS = 16; // начальное количество слотов истории без ограничения размера
+
+    private final int capacity; // максимальное количество задач в истории, UNLIMITED - без ограничений
+    private final SlotIndex slotIndex; // связка ID задачи со слотом
+    private Task[] tasks; // задачи по слотам
+    private int[] prev; // предыдущий слот в порядке просмотра
+    private int[] next; // следующий слот в порядке просмотра, для свободных слотов - следующий свободный
+    private int head = NO_SLOT; // самый давний просмотр
+    private int tail = NO_SLOT; // последний просмотр
+    private int freeSlot = NO_SLOT; // начало списка свободных слотов
+    private int usedSlots; // сколько слотов массива уже было занято хоть раз
+    private int size; // количество задач в истории
+
+    public IndexedHistoryManager() {
+        this(InMemoryHistoryManager.UNLIMITED);
+    }
+
+    /**
+     * Конструктор истории просмотров с ограничением размера, массивы сразу выделяются на весь размер
+     *
+     * @param capacity максимальное количество задач в истории, InMemoryHistoryManager.UNLIMITED - без ограничений
+     */
+    public IndexedHistoryManager(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("History capacity must not be negative: " + capacity);
+        this.capacity = capacity;
+        int slots = capacity == InMemoryHistoryManager.UNLIMITED ? INITIAL_SLOTS : capacity;
+        tasks = new Task[slots];
+        prev = new int[slots];
+        next = new int[slots];
+        slotIndex = new SlotIndex(slots);
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+
+        int id = task.getId();
+        int slot = slotIndex.get(id);
+        if (slot != NO_SLOT) { // задача уже есть в истории - переносим ее слот в конец списка
+            unlink(slot);
+        } else if (capacity != InMemoryHistoryManager.UNLIMITED && size == capacity) {
+            // история переполнена - слот самого давнего просмотра отдаем новой задаче
+            slot = head;
+            slotIndex.remove(tasks[slot].getId());
+            unlink(slot);
+            slotIndex.put(id, slot);
+        } else {
+            slot = allocateSlot();
+            slotIndex.put(id, slot);
+            size++;
+        }
+        tasks[slot] = task;
+        linkLast(slot);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> historyViews = new ArrayList<>(size);
+        for (int slot = head; slot != NO_SLOT; slot = next[slot]) {
+            historyViews.add(tasks[slot]);
+        }
+        return historyViews;
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("History limit must not be negative: " + limit);
+        Task[] lastViews = new Task[Math.min(limit, size)];
+        int slot = tail;
+        for (int i = lastViews.length - 1; i >= 0; i--) {
+            lastViews[i] = tasks[slot];
+            slot = prev[slot];
+        }
+        return new ArrayList<>(Arrays.asList(lastViews));
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = slotIndex.remove(id);
+        if (slot == NO_SLOT) {
+            return;
+        }
+        unlink(slot);
+        tasks[slot] = null;
+        next[slot] = freeSlot; // возвращаем слот в список свободных
+        freeSlot = slot;
+        size--;
+    }
+
+    // получение свободного слота: из списка освобожденных или новый, при необходимости массивы увеличиваются
+    private int allocateSlot() {
+        if (freeSlot != NO_SLOT) {
+            int slot = freeSlot;
+            freeSlot = next[slot];
+            return slot;
+        }
+        if (usedSlots == tasks.length) {
+            int length = tasks.length * 2;
+            tasks = Arrays.copyOf(tasks, length);
+            prev = Arrays.copyOf(prev, length);
+            next = Arrays.copyOf(next, length);
+        }
+        return usedSlots++;
+    }
+
+    // добавление слота в конец списка
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NO_SLOT;
+        if (tail == NO_SLOT) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    // исключение слота из списка
+    private void unlink(int slot) {
+        int prevSlot = prev[slot];
+        int nextSlot = next[slot];
+        if (prevSlot == NO_SLOT) {
+            head = nextSlot;
+        } else {
+            next[prevSlot] = nextSlot;
+        }
+        if (nextSlot == NO_SLOT) {
+            tail = prevSlot;
+        } else {
+            prev[nextSlot] = prevSlot;
+        }
+    }
+
+    /**
+     * Хэш-таблица ID задачи - номер слота на примитивных массивах с открытой адресацией
+     * ячейка свободна, если в ней записан слот NO_SLOT
+     */
+    static class SlotIndex {
+        private static final int HASH_MULTIPLIER = 0x9E3779B9; // перемешивание соседних ID по таблице
+
+        private int[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        SlotIndex(int expectedSize) {
+            // таблица заполняется не больше чем наполовину
+            int length = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+            keys = new int[length];
+            values = new int[length];
+            Arrays.fill(values, NO_SLOT);
+            mask = length - 1;
+        }
+
+        int get(int key) {
+            for (int i = index(key); values[i] != NO_SLOT; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return NO_SLOT;
+        }
+
+        void put(int key, int value) {
+            int i = index(key);
+            while (values[i] != NO_SLOT) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size * 2 > keys.length) resize();
+        }
+
+        int remove(int key) {
+            int i = index(key);
+            while (values[i] != NO_SLOT) {
+                if (keys[i] == key) {
+                    int value = values[i];
+                    deleteAt(i);
+                    size--;
+                    return value;
+                }
+                i = (i + 1) & mask;
+            }
+            return NO_SLOT;
+        }
+
+        // удаление со сдвигом следующих ячеек цепочки, чтобы не оставлять "надгробий"
+        private void deleteAt(int hole) {
+            int i = hole;
+            while (true) {
+                i = (i + 1) & mask;
+                if (values[i] == NO_SLOT) break;
+                int home = index(keys[i]);
+                // ячейку можно сдвинуть в дыру, если ее исходная позиция не лежит между дырой и ячейкой
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    hole = i;
+                }
+            }
+            values[hole] = NO_SLOT;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(values, NO_SLOT);
+            mask = keys.length - 1;
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != NO_SLOT) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private int index(int key) {
+            int hash = key * HASH_MULTIPLIER;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package service;
 
+import java.time.Duration;
+
 public final class Managers {
     private Managers() {
 
@@ -9,6 +11,59 @@ public final class Managers {
         return new InMemoryHistoryManager();
     }
 
+    /**
+     * Получение истории просмотров с ограничением размера
+     *
+     * @param capacity максимальное количество задач в истории, 0 - без ограничений
+     * @return менеджер истории просмотров
+     */
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    /**
+     * Получение потокобезопасной истории просмотров для многопоточного сервера
+     *
+     * @param capacity максимальное количество задач в истории, 0 - без ограничений
+     * @return менеджер истории просмотров
+     */
+    public static HistoryManager getConcurrentHistory(int capacity) {
+        return new ConcurrentHistoryManager(capacity);
+    }
+
+    /**
+     * Получение истории просмотров на массивах, которая не создает объектов при просмотре
+     *
+     * @param capacity максимальное количество задач в истории, 0 - без ограничений
+     * @return менеджер истории просмотров
+     */
+    public static HistoryManager getIndexedHistory(int capacity) {
+        return new IndexedHistoryManager(capacity);
+    }
+
+    /**
+     * Получение истории просмотров, которая ведется отдельно для каждой сессии клиента
+     *
+     * @param sessionCapacity максимальное количество задач в истории одной сессии
+     * @param maxSessions     максимальное количество одновременно хранимых сессий
+     * @param idleTimeout     время бездействия, после которого сессия удаляется
+     * @return менеджер истории просмотров
+     */
+    public static SessionHistoryManager getSessionHistory(int sessionCapacity, int maxSessions,
+                                                          Duration idleTimeout) {
+        return new SessionHistoryManager(sessionCapacity, maxSessions, idleTimeout);
+    }
+
+    /**
+     * Получение потокобезопасного менеджера задач в памяти для многопоточного сервера
+     *
+     * @return менеджер задач
+     */
+    public static TaskManager getConcurrent() {
+        HistoryManager history = getConcurrentHistory(InMemoryHistoryManager.UNLIMITED);
+        return new ConcurrentTaskManager(new InMemoryTaskManager(history));
+    }
+
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
@@ -0,0 +1,242 @@
+package service;
+
+import model.Task;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * История просмотров, которая ведется отдельно для каждого клиента (сессии).
+ * Текущая сессия привязывается к потоку на время обработки запроса через {@link #enterSession(String)},
+ * вне сессии используется общая история, как раньше.
+ * У каждой сессии своя история под своей блокировкой, поэтому разные клиенты не мешают друг другу.
+ * Память ограничена: не больше maxSessions сессий по sessionCapacity задач в каждой, давно не использованные
+ * сессии удаляются при создании новых.
+ * Удаление задачи не обходит все сессии: оно записывается в отметки удаления с номером (поколением) удаления,
+ * а каждая сессия при следующем обращении убирает из своей небольшой истории задачи, удаленные после их
+ * просмотра. Отметки, которые уже проверили все сессии, удаляются.
+ */
+public class SessionHistoryManager implements HistoryManager {
+    private static final int MIN_TOMBSTONES_TO_PRUNE = 1024; // количество отметок, с которого начинается их чистка
+
+    private final int sessionCapacity; // максимальное количество задач в истории одной сессии
+    private final int maxSessions; // максимальное количество сессий
+    private final long idleTimeout; // время бездействия в наносекундах, после которого сессия удаляется
+    private final LongSupplier clock; // источник времени в наносекундах
+    private final Session sharedSession; // общая история для запросов вне сессии
+    private final Map<String, Session> sessions; // истории клиентов по идентификатору сессии
+    private final ThreadLocal<Session> currentSession; // сессия запроса, который обрабатывает поток
+    private final ReentrantLock evictionLock; // удалением сессий одновременно занимается только один поток
+    private volatile long lastEviction; // время последней проверки сессий на бездействие
+    private final Map<Integer, Long> tombstones; // отметки удаления: ID удаленной задачи и поколение удаления
+    private volatile long removeGeneration; // поколение последнего удаления, меняется под блокировкой tombstones
+    private int pruneThreshold; // количество отметок для следующей чистки, под блокировкой tombstones
+
+    /**
+     * Конструктор истории просмотров по сессиям
+     *
+     * @param sessionCapacity максимальное количество задач в истории одной сессии
+     * @param maxSessions     максимальное количество одновременно хранимых сессий
+     * @param idleTimeout     время бездействия, после которого сессия удаляется
+     */
+    public SessionHistoryManager(int sessionCapacity, int maxSessions, Duration idleTimeout) {
+        this(sessionCapacity, maxSessions, idleTimeout, System::nanoTime);
+    }
+
+    SessionHistoryManager(int sessionCapacity, int maxSessions, Duration idleTimeout, LongSupplier clock) {
+        if (sessionCapacity <= 0) throw new IllegalArgumentException("Session capacity must be positive: "
+                + sessionCapacity);
+        if (maxSessions <= 0) throw new IllegalArgumentException("Max sessions must be positive: " + maxSessions);
+        this.sessionCapacity = sessionCapacity;
+        this.maxSessions = maxSessions;
+        this.idleTimeout = idleTimeout.toNanos();
+        this.clock = clock;
+        sharedSession = new Session(sessionCapacity, clock.getAsLong(), 0);
+        sessions = new ConcurrentHashMap<>();
+        currentSession = new ThreadLocal<>();
+        evictionLock = new ReentrantLock();
+        lastEviction = clock.getAsLong();
+        tombstones = new ConcurrentHashMap<>();
+        pruneThreshold = MIN_TOMBSTONES_TO_PRUNE;
+    }
+
+    /**
+     * Привязка сессии к текущему потоку, все просмотры и запросы истории потока идут в историю этой сессии
+     * до вызова {@link #exitSession()}
+     *
+     * @param sessionId идентификатор сессии, null - общая история
+     */
+    public void enterSession(String sessionId) {
+        if (sessionId == null) {
+            currentSession.remove();
+            return;
+        }
+        long now = clock.getAsLong();
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            Session newSession = new Session(sessionCapacity, now, removeGeneration);
+            session = sessions.putIfAbsent(sessionId, newSession);
+            if (session == null) {
+                session = newSession;
+                evictSessions(now);
+            }
+        }
+        session.lastAccess = now;
+        currentSession.set(session);
+    }
+
+    /**
+     * Отвязка сессии от текущего потока
+     */
+    public void exitSession() {
+        currentSession.remove();
+    }
+
+    /**
+     * Количество хранимых сессий без общей истории
+     *
+     * @return количество сессий
+     */
+    public int getSessionsCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void add(Task task) {
+        Session session = session();
+        synchronized (session) {
+            applyRemovals(session);
+            session.history.add(task);
+            session.viewGenerations.put(task.getId(), removeGeneration);
+            if (session.viewGenerations.size() > 2 * sessionCapacity) session.retainViewedGenerations();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        Session session = session();
+        synchronized (session) {
+            applyRemovals(session);
+            return session.history.getHistory();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        Session session = session();
+        synchronized (session) {
+            applyRemovals(session);
+            return session.history.getHistory(limit);
+        }
+    }
+
+    /**
+     * Удаление задачи из истории всех сессий (задача удалена из менеджера). Из общей истории задача удаляется
+     * сразу, из историй сессий - при следующем обращении к сессии
+     *
+     * @param id ID задачи
+     */
+    @Override
+    public void remove(int id) {
+        synchronized (sharedSession) {
+            sharedSession.history.remove(id);
+        }
+        synchronized (tombstones) {
+            long generation = removeGeneration + 1;
+            tombstones.put(id, generation);
+            removeGeneration = generation; // публикуется после отметки, чтобы сессия не пропустила ее
+            if (tombstones.size() >= pruneThreshold) pruneTombstones();
+        }
+    }
+
+    int getTombstonesCount() {
+        return tombstones.size();
+    }
+
+    private Session session() {
+        Session session = currentSession.get();
+        return session == null ? sharedSession : session;
+    }
+
+    // удаление из истории сессии задач, удаленных после их просмотра, вызывается под блокировкой на сессии.
+    // Сравнивается поколение удаления с поколением просмотра, а не только ID: задачу с тем же ID могли удалить
+    // и заново загрузить (импорт сохраняет ID), и просмотр новой задачи не должен пропасть из-за старой отметки
+    private void applyRemovals(Session session) {
+        long generation = removeGeneration;
+        if (session == sharedSession || session.checkedGeneration >= generation) return;
+        for (Task task : session.history.getHistory()) {
+            Long removed = tombstones.get(task.getId());
+            if (removed != null && removed > session.viewGenerations.getOrDefault(task.getId(), 0L)) {
+                session.history.remove(task.getId());
+            }
+        }
+        session.retainViewedGenerations();
+        session.checkedGeneration = generation;
+    }
+
+    // чистка отметок, которые проверили все сессии; бездействующие сессии удаляются, чтобы не держать отметки.
+    // Следующая чистка - при удвоении оставшихся отметок, так стоимость обхода сессий распределяется по удалениям
+    private void pruneTombstones() {
+        long now = clock.getAsLong();
+        sessions.values().removeIf(session -> now - session.lastAccess >= idleTimeout);
+        long checked = removeGeneration;
+        for (Session session : sessions.values()) {
+            checked = Math.min(checked, session.checkedGeneration);
+        }
+        long minChecked = checked;
+        tombstones.values().removeIf(generation -> generation <= minChecked);
+        pruneThreshold = Math.max(MIN_TOMBSTONES_TO_PRUNE, tombstones.size() * 2);
+    }
+
+    // удаление сессий при создании новой: сначала бездействующих, а если сессий все еще больше maxSessions,
+    // то самых давних до 3/4 от maxSessions, чтобы следующий проход понадобился не раньше чем через maxSessions/4
+    // новых сессий - так стоимость прохода распределяется по созданиям сессий
+    private void evictSessions(long now) {
+        if (sessions.size() <= maxSessions && now - lastEviction < idleTimeout) return;
+        if (!evictionLock.tryLock()) return; // сессии уже чистит другой поток
+        try {
+            lastEviction = now;
+            sessions.values().removeIf(session -> now - session.lastAccess >= idleTimeout);
+            int excess = sessions.size() - Math.max(1, maxSessions * 3 / 4);
+            if (sessions.size() <= maxSessions || excess <= 0) return;
+            long[] accessTimes = sessions.values().stream().mapToLong(session -> session.lastAccess).toArray();
+            Arrays.sort(accessTimes);
+            long cutoff = accessTimes[Math.min(excess, accessTimes.length - 1)];
+            sessions.values().removeIf(session -> session.lastAccess < cutoff);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // история одной сессии, доступ к истории только под блокировкой на сессии
+    static class Session {
+        final InMemoryHistoryManager history;
+        volatile long lastAccess; // время последнего запроса в сессии
+        volatile long checkedGeneration; // поколение удалений, уже убранных из истории, меняется под блокировкой
+        final Map<Integer, Long> viewGenerations; // ID задачи и поколение удалений на момент ее последнего просмотра
+
+        Session(int capacity, long lastAccess, long checkedGeneration) {
+            history = new InMemoryHistoryManager(capacity);
+            this.lastAccess = lastAccess;
+            this.checkedGeneration = checkedGeneration;
+            viewGenerations = new HashMap<>();
+        }
+
+        // поколения просмотров хранятся только для задач, которые остались в истории
+        void retainViewedGenerations() {
+            Set<Integer> ids = new HashSet<>();
+            for (Task task : history.getHistory()) {
+                ids.add(task.getId());
+            }
+            viewGenerations.keySet().retainAll(ids);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package service;
+
+import model.TaskType;
+
+/**
+ * Изменение одной задачи, эпика или подзадачи в менеджере
+ */
+public final class TaskChange {
+    private final ChangeType change;
+    private final TaskType type;
+    private final int id;
+    private final long version; // версия менеджера, в которой произошло изменение
+
+    public TaskChange(ChangeType change, TaskType type, int id, long version) {
+        this.change = change;
+        this.type = type;
+        this.id = id;
+        this.version = version;
+    }
+
+    public ChangeType getChange() {
+        return change;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskChange{change=" + change + ", type=" + type + ", id=" + id + ", version=" + version + "}";
+    }
+}
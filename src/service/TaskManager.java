@@ -13,12 +13,37 @@ public interface TaskManager {
 
     void addSubtask(Subtask subtask);
 
+    void importTasks(List<Task> newTasks);
+
+    /**
+     * Пакетное изменение задач: операции выполняются по порядку как одно целое,
+     * при ошибке любой операции менеджер остается без изменений
+     *
+     * @param operations операции пакета
+     * @return ID задачи каждой операции (для созданных задач - новые ID)
+     */
+    List<Integer> applyBatch(List<BatchOperation> operations);
+
     void updateTask(Task newTask);
 
     void updateEpic(Epic newEpic);
 
     void updateSubtask(Subtask newSubtask);
 
+    /**
+     * Добавление или обновление задачи за одну операцию: если задача с таким ID уже есть, то она обновляется,
+     * иначе задача добавляется с новым ID
+     * в отличие от проверки через getTaskById задача не попадает в историю просмотров
+     *
+     * @param task задача
+     * @return true, если задача добавлена, false - если обновлена
+     */
+    boolean upsertTask(Task task);
+
+    boolean upsertEpic(Epic epic);
+
+    boolean upsertSubtask(Subtask subtask);
+
     List<Task> getTasks();
 
     Task getTaskById(int taskId);
@@ -47,5 +72,57 @@ public interface TaskManager {
 
     List<Task> getHistory();
 
+    List<Task> getHistory(int limit);
+
     List<Task> getPrioritizedTasks();
+
+    /**
+     * Отбор задач, эпиков и подзадач по условиям
+     *
+     * @param query условия отбора
+     * @return задачи, которые подходят под условия
+     */
+    List<Task> findTasks(TaskQuery query);
+
+    /**
+     * Отбор задач и подзадач с временем начала по условиям, в порядке времени начала
+     *
+     * @param query условия отбора
+     * @return задачи, которые подходят под условия
+     */
+    List<Task> getPrioritizedTasks(TaskQuery query);
+
+    /**
+     * Версия данных менеджера: увеличивается при каждом изменении задач, эпиков или подзадач
+     * (просмотры задач версию не меняют), по ней клиенты могут понять, что данные не изменились
+     *
+     * @return версия данных
+     */
+    long getVersion();
+
+    /**
+     * Подписка на изменения задач, эпиков и подзадач
+     * изменения пакета передаются только после успешного выполнения всего пакета
+     *
+     * @param listener подписчик
+     */
+    void addChangeListener(ChangeListener listener);
+
+    void removeChangeListener(ChangeListener listener);
+
+    /**
+     * Токен синхронизации клиента: текущая версия данных вместе с эпохой менеджера ("эпоха-версия"),
+     * версия без эпохи после перезапуска менеджера начинается заново и не подходит для синхронизации
+     *
+     * @return токен синхронизации
+     */
+    String getSyncToken();
+
+    /**
+     * Изменения задач, эпиков и подзадач после заданного токена синхронизации
+     *
+     * @param since токен синхронизации, после которого нужны изменения
+     * @return изменения или признак того, что нужно заново загрузить все задачи
+     */
+    ChangeSet getChangesSince(String since);
 }
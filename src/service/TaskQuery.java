@@ -0,0 +1,105 @@
+package service;
+
+import exception.TaskValidateException;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия отбора задач: статус, тип, эпик подзадач и интервал времени начала [from, to).
+ * Не заданное условие (null) не проверяется. Время эпика рассчитывается по его подзадачам, поэтому
+ * при отборе по интервалу времени эпики выбираются, только если запрошен тип EPIC
+ */
+public final class TaskQuery {
+    private Status status;
+    private TaskType type;
+    private Integer epicId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public TaskQuery withStatus(Status status) {
+        this.status = status;
+        return this;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public TaskQuery withType(TaskType type) {
+        this.type = type;
+        return this;
+    }
+
+    public Integer getEpicId() {
+        return epicId;
+    }
+
+    /**
+     * Только подзадачи заданного эпика
+     *
+     * @param epicId ID эпика
+     * @return это же условие
+     */
+    public TaskQuery withEpicId(Integer epicId) {
+        this.epicId = epicId;
+        return this;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * Только задачи, которые начинаются в интервале: не раньше from и раньше to
+     *
+     * @param from начало интервала, null - без ограничения
+     * @param to   конец интервала (не включается), null - без ограничения
+     * @return это же условие
+     */
+    public TaskQuery withStartTime(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to))
+            throw new TaskValidateException("Start of the time range is after its end.");
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * Задан ли интервал времени начала
+     *
+     * @return true, если задано начало или конец интервала
+     */
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+
+    /**
+     * Проверка задачи по всем условиям
+     *
+     * @param task задача
+     * @return true, если задача подходит
+     */
+    public boolean matches(Task task) {
+        if (status != null && task.getStatus() != status) return false;
+        if (type != null && task.getType() != type) return false;
+        if (epicId != null && (task.getType() != TaskType.SUBTASK || ((Subtask) task).getEpicId() != epicId)) {
+            return false;
+        }
+        if (!hasTimeRange()) return true;
+        LocalDateTime startTime = task.getStartTime();
+        if (startTime == null) return false;
+        return (from == null || !startTime.isBefore(from)) && (to == null || startTime.isBefore(to));
+    }
+}
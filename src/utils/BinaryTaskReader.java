@@ -0,0 +1,114 @@
+package utils;
+
+import exception.TaskValidateException;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение задач в двоичном формате {@link BinaryTaskWriter}.
+ * Неверные данные (неизвестный вид значения, статус или длина строки) приводят к {@link TaskValidateException},
+ * преждевременный конец потока - к {@link java.io.EOFException}
+ */
+public class BinaryTaskReader {
+    private static final int MAX_LENGTH = 1 << 24; // максимальная длина строки и списка, защита от неверной длины
+    private static final Status[] STATUSES = Status.values();
+
+    private final DataInputStream in;
+
+    /**
+     * Конструктор чтения
+     *
+     * @param in поток чтения, для небольших записей лучше буферизованный
+     */
+    public BinaryTaskReader(InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /**
+     * Чтение задачи, эпика или подзадачи
+     *
+     * @return задача или null, если записан null или поток пустой
+     * @throws IOException возможные исключения при чтении
+     */
+    public Task readTask() throws IOException {
+        int kind = in.read();
+        if (kind < 0) return null;
+        return readTask(kind);
+    }
+
+    /**
+     * Чтение списка задач
+     *
+     * @return задачи
+     * @throws IOException возможные исключения при чтении
+     */
+    public List<Task> readTasks() throws IOException {
+        int kind = in.readUnsignedByte();
+        if (kind != BinaryTaskWriter.LIST) throw new TaskValidateException("Binary list expected.");
+        int size = readLength();
+        List<Task> tasks = new ArrayList<>(Math.min(size, 1024));
+        for (int i = 0; i < size; i++) {
+            tasks.add(readTask(in.readUnsignedByte()));
+        }
+        return tasks;
+    }
+
+    private Task readTask(int kind) throws IOException {
+        if (kind == BinaryTaskWriter.NULL) return null;
+        if (kind != BinaryTaskWriter.TASK && kind != BinaryTaskWriter.EPIC && kind != BinaryTaskWriter.SUBTASK) {
+            throw new TaskValidateException("Unknown binary value: " + kind + ".");
+        }
+        int id = in.readInt();
+        int flags = in.readUnsignedByte();
+        String name = (flags & BinaryTaskWriter.HAS_NAME) != 0 ? readString() : null;
+        String description = (flags & BinaryTaskWriter.HAS_DESCRIPTION) != 0 ? readString() : null;
+        Status status = (flags & BinaryTaskWriter.HAS_STATUS) != 0 ? readStatus() : null;
+        LocalDateTime startTime = (flags & BinaryTaskWriter.HAS_START_TIME) != 0 ? readDateTime() : null;
+        Duration duration = (flags & BinaryTaskWriter.HAS_DURATION) != 0 ? Duration.ofMinutes(in.readLong()) : null;
+        if (kind == BinaryTaskWriter.TASK) return new Task(id, name, description, status, startTime, duration);
+        if (kind == BinaryTaskWriter.SUBTASK) {
+            return new Subtask(id, name, description, status, in.readInt(), startTime, duration);
+        }
+        LocalDateTime endTime = (flags & BinaryTaskWriter.HAS_END_TIME) != 0 ? readDateTime() : null;
+        Epic epic = new Epic(id, name, description, status, startTime, duration, endTime);
+        int size = readLength();
+        for (int i = 0; i < size; i++) {
+            epic.getSubtasksId().add(in.readInt());
+        }
+        return epic;
+    }
+
+    private int readLength() throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_LENGTH) throw new TaskValidateException("Wrong binary length: " + length + ".");
+        return length;
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[readLength()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Status readStatus() throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= STATUSES.length) throw new TaskValidateException("Unknown binary status: " + ordinal + ".");
+        return STATUSES[ordinal];
+    }
+
+    // время в миллисекундах UTC, как в файле CSV
+    private LocalDateTime readDateTime() throws IOException {
+        return FileCsvUtils.fromUtcMillis(in.readLong());
+    }
+}
@@ -0,0 +1,193 @@
+package utils;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import service.ChangeSet;
+import service.TaskChange;
+
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Запись задач в компактном двоичном формате для обмена с сервером вместо JSON.
+ * Числа записываются в порядке big-endian, строки - длиной в байтах (int) и байтами UTF-8, время - в миллисекундах
+ * UTC (long), продолжительность - в минутах (long), статус - номером в {@link Status}.
+ * Значение начинается с байта вида: {@link #NULL}, {@link #TASK}, {@link #EPIC}, {@link #SUBTASK},
+ * {@link #LIST} (количество и задачи) или {@link #CHANGE_SET}.
+ * Задача: вид, id, байт флагов необязательных полей, затем только заданные поля в порядке флагов,
+ * у подзадачи - id эпика, у эпика - время окончания (по флагу) и количество и ID подзадач
+ */
+public class BinaryTaskWriter implements Flushable {
+    static final byte NULL = 0;
+    static final byte TASK = 1;
+    static final byte EPIC = 2;
+    static final byte SUBTASK = 3;
+    static final byte LIST = 4;
+    static final byte CHANGE_SET = 5;
+    // флаги заданных необязательных полей задачи
+    static final int HAS_NAME = 1;
+    static final int HAS_DESCRIPTION = 1 << 1;
+    static final int HAS_STATUS = 1 << 2;
+    static final int HAS_START_TIME = 1 << 3;
+    static final int HAS_DURATION = 1 << 4;
+    static final int HAS_END_TIME = 1 << 5;
+
+    private final DataOutputStream out;
+
+    /**
+     * Конструктор записи
+     *
+     * @param out поток записи, для небольших записей лучше буферизованный
+     */
+    public BinaryTaskWriter(OutputStream out) {
+        this.out = new DataOutputStream(out);
+    }
+
+    /**
+     * Можно ли записать значение в двоичном формате: задача, список задач или изменения менеджера
+     *
+     * @param value значение
+     * @return true, если значение можно записать методом {@link #write(Object)}
+     */
+    public static boolean supports(Object value) {
+        if (value == null || value instanceof Task || value instanceof ChangeSet) return true;
+        if (!(value instanceof Collection<?> values)) return false;
+        for (Object element : values) {
+            if (element != null && !(element instanceof Task)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Запись задачи, списка задач или изменений менеджера
+     *
+     * @param value значение, для которого {@link #supports(Object)} возвращает true
+     * @throws IOException возможные исключения при записи
+     */
+    public void write(Object value) throws IOException {
+        if (value instanceof Collection<?> tasks) {
+            writeTasks(tasks);
+        } else if (value instanceof ChangeSet changeSet) {
+            writeChangeSet(changeSet);
+        } else {
+            writeTask((Task) value);
+        }
+    }
+
+    /**
+     * Запись задачи, эпика или подзадачи
+     *
+     * @param task задача или null
+     * @throws IOException возможные исключения при записи
+     */
+    public void writeTask(Task task) throws IOException {
+        if (task == null) {
+            out.writeByte(NULL);
+            return;
+        }
+        out.writeByte(kindOf(task.getType()));
+        out.writeInt(task.getId());
+        LocalDateTime endTime = task instanceof Epic epic ? epic.getEndTime() : null;
+        int flags = (task.getName() != null ? HAS_NAME : 0)
+                | (task.getDescription() != null ? HAS_DESCRIPTION : 0)
+                | (task.getStatus() != null ? HAS_STATUS : 0)
+                | (task.getStartTime() != null ? HAS_START_TIME : 0)
+                | (task.getDuration() != null ? HAS_DURATION : 0)
+                | (endTime != null ? HAS_END_TIME : 0);
+        out.writeByte(flags);
+        if (task.getName() != null) writeString(task.getName());
+        if (task.getDescription() != null) writeString(task.getDescription());
+        if (task.getStatus() != null) out.writeByte(task.getStatus().ordinal());
+        if (task.getStartTime() != null) writeDateTime(task.getStartTime());
+        if (task.getDuration() != null) writeDuration(task.getDuration());
+        if (task instanceof Subtask subtask) out.writeInt(subtask.getEpicId());
+        if (task instanceof Epic epic) {
+            if (endTime != null) writeDateTime(endTime);
+            Set<Integer> subtasksId = epic.getSubtasksId();
+            out.writeInt(subtasksId.size());
+            for (int id : subtasksId) {
+                out.writeInt(id);
+            }
+        }
+    }
+
+    /**
+     * Запись списка задач
+     *
+     * @param tasks задачи
+     * @throws IOException возможные исключения при записи
+     */
+    public void writeTasks(Collection<?> tasks) throws IOException {
+        out.writeByte(LIST);
+        writeList(tasks);
+    }
+
+    /**
+     * Запись изменений менеджера: токен синхронизации, версия, признак resync, списки задач, эпиков и подзадач
+     * и удаленные задачи (тип, id и версия удаления)
+     *
+     * @param changeSet изменения менеджера
+     * @throws IOException возможные исключения при записи
+     */
+    public void writeChangeSet(ChangeSet changeSet) throws IOException {
+        out.writeByte(CHANGE_SET);
+        writeString(changeSet.getSyncToken());
+        out.writeLong(changeSet.getVersion());
+        out.writeBoolean(changeSet.isResync());
+        writeList(changeSet.getTasks());
+        writeList(changeSet.getEpics());
+        writeList(changeSet.getSubtasks());
+        out.writeInt(changeSet.getDeleted().size());
+        for (TaskChange change : changeSet.getDeleted()) {
+            out.writeByte(kindOf(change.getType()));
+            out.writeInt(change.getId());
+            out.writeLong(change.getVersion());
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void writeList(Collection<?> tasks) throws IOException {
+        out.writeInt(tasks.size());
+        for (Object task : tasks) {
+            writeTask((Task) task);
+        }
+    }
+
+    static byte kindOf(TaskType type) {
+        return switch (type) {
+            case TASK -> TASK;
+            case EPIC -> EPIC;
+            case SUBTASK -> SUBTASK;
+        };
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // время в миллисекундах UTC, как в файле CSV
+    private void writeDateTime(LocalDateTime dateTime) throws IOException {
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC) * 1000 + dateTime.getNano() / 1_000_000);
+    }
+
+    private void writeDuration(Duration duration) throws IOException {
+        out.writeLong(duration.toMinutes());
+    }
+}
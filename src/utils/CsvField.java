@@ -0,0 +1,28 @@
+package utils;
+
+public enum CsvField {
+    TYPE("type"),
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    STATUS("status"),
+    EPIC("epic"),
+    START_TIME("starttime"),
+    DURATION("duration"),
+    END_TIME("endtime");
+
+    private final String header;
+
+    CsvField(String header) {
+        this.header = header;
+    }
+
+    /**
+     * Получение наименования поля в заголовке файла CSV
+     *
+     * @return наименование поля
+     */
+    public String getHeader() {
+        return header;
+    }
+}
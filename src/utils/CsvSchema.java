@@ -0,0 +1,37 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемая схема файла CSV: порядок полей, прочитанный из заголовка конкретного файла.
+ * Создается в {@link FileCsvUtils#checkHeader} и передается в парсер строк, поэтому несколько
+ * файлов можно загружать одновременно, не мешая друг другу.
+ */
+public final class CsvSchema {
+    private final int[] orderOfFields; // номер колонки в файле для каждого поля CsvField
+    private final int numberOfColumns; // количество колонок в заголовке файла
+
+    CsvSchema(int[] orderOfFields, int numberOfColumns) {
+        this.orderOfFields = Arrays.copyOf(orderOfFields, orderOfFields.length);
+        this.numberOfColumns = numberOfColumns;
+    }
+
+    /**
+     * Получение номера колонки поля в файле
+     *
+     * @param field поле
+     * @return номер колонки
+     */
+    public int indexOf(CsvField field) {
+        return orderOfFields[field.ordinal()];
+    }
+
+    /**
+     * Получение количества колонок в заголовке файла
+     *
+     * @return количество колонок
+     */
+    public int getNumberOfColumns() {
+        return numberOfColumns;
+    }
+}
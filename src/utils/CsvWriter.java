@@ -0,0 +1,175 @@
+package utils;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Запись задач в формате CSV напрямую в поток.
+ * Каждая запись сериализуется в переиспользуемый буфер символов, числа форматируются в нем же,
+ * поэтому при сохранении не создаются промежуточные строки для каждой задачи.
+ */
+public class CsvWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 8192; // размер буфера записи в символах
+    private static final int MAX_LONG_LENGTH = 20; // максимальная длина числа long со знаком
+    private static final char CSV_SEPARATOR = ','; // разделитель между полями файла CSV
+    private static final char LINE_SEPARATOR = '\n'; // разделитель записей файла CSV
+    private static final char QUOTE = '"'; // кавычки для полей со спецсимволами
+
+    private final Writer writer;
+    private final char[] buffer;
+    private int position; // текущая позиция в буфере
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+        buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Запись заголовка файла CSV со всеми полями в порядке {@link CsvField}
+     *
+     * @throws IOException возможные исключения при записи
+     */
+    public void writeHeader() throws IOException {
+        CsvField[] fields = CsvField.values();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) writeChar(CSV_SEPARATOR);
+            writeString(fields[i].getHeader());
+        }
+        writeChar(LINE_SEPARATOR);
+    }
+
+    /**
+     * Запись задачи, эпика или подзадачи одной строкой файла CSV
+     *
+     * @param task задача
+     * @throws IOException возможные исключения при записи
+     */
+    public void writeTask(Task task) throws IOException {
+        writeString(task.getType().name());
+        writeChar(CSV_SEPARATOR);
+        writeLong(task.getId());
+        writeChar(CSV_SEPARATOR);
+        writeField(task.getName());
+        writeChar(CSV_SEPARATOR);
+        writeField(task.getDescription());
+        writeChar(CSV_SEPARATOR);
+        writeString(task.getStatus().name());
+        writeChar(CSV_SEPARATOR);
+        if (task instanceof Subtask subtask) writeLong(subtask.getEpicId());
+        writeChar(CSV_SEPARATOR);
+        writeDateTime(task.getStartTime());
+        writeChar(CSV_SEPARATOR);
+        writeDuration(task.getDuration());
+        writeChar(CSV_SEPARATOR);
+        if (task instanceof Epic epic) writeDateTime(epic.getEndTime());
+        writeChar(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            writer.close();
+        }
+    }
+
+    // запись времени в миллисекундах UTC без создания промежуточного Instant
+    private void writeDateTime(LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) return;
+        writeLong(dateTime.toEpochSecond(ZoneOffset.UTC) * 1000 + dateTime.getNano() / 1_000_000);
+    }
+
+    // запись продолжительности в минутах
+    private void writeDuration(Duration duration) throws IOException {
+        if (duration == null) return;
+        writeLong(duration.toMinutes());
+    }
+
+    // форматирование числа прямо в буфер: цифры записываются с конца
+    private void writeLong(long value) throws IOException {
+        if (BUFFER_SIZE - position < MAX_LONG_LENGTH) flushBuffer();
+        if (value == Long.MIN_VALUE) {
+            writeString(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int length = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            length++;
+        }
+        int end = position + length;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    // запись текстового поля: без спецсимволов поле копируется как есть, иначе берется в кавычки по RFC 4180
+    private void writeField(String value) throws IOException {
+        if (value == null) return;
+        if (!needsQuoting(value)) {
+            writeString(value);
+            return;
+        }
+        writeChar(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) writeChar(QUOTE); // кавычка внутри поля удваивается
+            writeChar(c);
+        }
+        writeChar(QUOTE);
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == CSV_SEPARATOR || c == QUOTE || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) return;
+        int length = value.length();
+        if (length > BUFFER_SIZE - position) {
+            flushBuffer();
+            if (length > BUFFER_SIZE) { // длинную строку пишем напрямую, минуя буфер
+                writer.write(value);
+                return;
+            }
+        }
+        value.getChars(0, length, buffer, position);
+        position += length;
+    }
+
+    private void writeChar(char value) throws IOException {
+        if (position == BUFFER_SIZE) flushBuffer();
+        buffer[position++] = value;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position == 0) return;
+        writer.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -6,51 +6,58 @@ import model.*;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 public class FileCsvUtils {
-    private static final int NUMBER_OF_FIELDS_IN_CSV_FILE = 9; // максимальное кол-во полей в файле CSV
+    private static final int NUMBER_OF_FIELDS_IN_CSV_FILE = CsvField.values().length; // кол-во полей в файле CSV
     private static final String CSV_SEPARATOR = ","; // разделитель между полями файла CSV
-    private static final int[] orderOfFields = new int[NUMBER_OF_FIELDS_IN_CSV_FILE]; // порядок полей в файле
+    private static final Set<CsvField> ALL_FIELDS = Collections.unmodifiableSet(EnumSet.allOf(CsvField.class));
+    private static final TaskType[] TASK_TYPES = TaskType.values(); // кэш значений, values() каждый раз копирует массив
+    private static final Status[] STATUSES = Status.values();
+    private static final char QUOTE_CHAR = '"'; // кавычка для полей с запятыми, кавычками и переводами строк
+    private static final String QUOTE = "\"";
+    private static final String ESCAPED_QUOTE = "\"\""; // кавычка внутри поля удваивается
+    private static final int BOUNDS_STRIDE = 3; // начало, конец и признак экранирования для каждой колонки
+    // сколько символов записи можно перечитать с метки, буфер BufferedReader при необходимости растет до него
+    private static final int RECORD_MARK_LIMIT = 1 << 16;
 
     /**
      * Проверка заголовка файла CSV
      *
      * @param fileReader ссылка на объект файоа
+     * @return схема файла с порядком полей
      * @throws IOException возможные исключения в методе
      */
-    public static void checkHeader(BufferedReader fileReader) throws IOException {
+    public static CsvSchema checkHeader(BufferedReader fileReader) throws IOException {
         // чтение и проверка заголовка файла (первой строки)
-        if (!fileReader.ready()) throw new ManagerSaveException("Файл пустой!");
-
+        // ready() не подходит для проверки: у сетевого потока данные могут еще не прийти
         String firstLine = fileReader.readLine();
 
+        if (firstLine == null) throw new ManagerSaveException("Файл пустой!");
+
         if (firstLine.isBlank())
             throw new ManagerSaveException("Поврежден заголовок файла CSV: пустая первая" + " строка!");
 
         String[] split = firstLine.split(CSV_SEPARATOR);
 
         // заполним массив порядка полей в файле начальным значением -1 для последующей проверки
+        int[] orderOfFields = new int[NUMBER_OF_FIELDS_IN_CSV_FILE];
         Arrays.fill(orderOfFields, -1);
 
         // порядок полей в файле CSV может быть произвольный, но количество полей должно совпадать
         for (int i = 0; i < split.length; i++) {
-            switch (split[i]) {
-                case "type" -> orderOfFields[0] = i;
-                case "id" -> orderOfFields[1] = i;
-                case "name" -> orderOfFields[2] = i;
-                case "description" -> orderOfFields[3] = i;
-                case "status" -> orderOfFields[4] = i;
-                case "epic" -> orderOfFields[5] = i;
-                case "starttime" -> orderOfFields[6] = i;
-                case "duration" -> orderOfFields[7] = i;
-                case "endtime" -> orderOfFields[8] = i;
-                default ->
-                        throw new ManagerSaveException("Поврежден заголовок файла CSV: неизвестное поле '" + split[i] + "'!");
+            CsvField field = findField(split[i]);
+            if (field == null) {
+                throw new ManagerSaveException("Поврежден заголовок файла CSV: неизвестное поле '" + split[i] + "'!");
             }
+            orderOfFields[field.ordinal()] = i;
         }
 
         // порядок следования каждого поля в файле должен быть установлен, иначе ошибка формата
@@ -59,87 +66,330 @@ public class FileCsvUtils {
                 throw new ManagerSaveException("Поврежден заголовка файла CSV: не хватает полей!");
             }
         }
+
+        return new CsvSchema(orderOfFields, split.length);
+    }
+
+    /**
+     * Чтение всех задач из потока в формате CSV: заголовок и строки с задачами
+     * поток читается построчно, поэтому подходит и для файла, и для тела HTTP-запроса;
+     * все прочитанные задачи хранятся в памяти в возвращаемом списке
+     *
+     * @param reader поток с данными в формате CSV
+     * @param fields поля, которые нужно загрузить
+     * @return список задач в порядке следования в потоке
+     * @throws IOException возможные исключения при чтении
+     */
+    public static List<Task> readTasks(BufferedReader reader, Set<CsvField> fields) throws IOException {
+        CsvSchema schema = checkHeader(reader);
+        List<Task> tasks = new ArrayList<>();
+        String record;
+        while ((record = readRecord(reader)) != null) {
+            tasks.add(fromString(record, schema, fields));
+        }
+        return tasks;
+    }
+
+    /**
+     * Чтение одной записи CSV: обычно это одна строка, но поле в кавычках может содержать переводы строк,
+     * тогда запись продолжается на следующих строках до закрывающей кавычки.
+     * Вне кавычек запись заканчивается на '\n', '\r' или "\r\n", как у {@link BufferedReader#readLine()},
+     * а перевод строки внутри поля в кавычках сохраняется как есть, в том числе CRLF (RFC 4180).
+     * Если первая строка такой записи длиннее RECORD_MARK_LIMIT символов, перевод строки после нее
+     * восстанавливается как '\n'
+     *
+     * @param reader поток с данными в формате CSV
+     * @return запись или null, если поток закончился
+     * @throws IOException возможные исключения при чтении
+     */
+    public static String readRecord(BufferedReader reader) throws IOException {
+        // быстрый путь - readLine(), он теряет перевод строки, поэтому начало записи помечается,
+        // и запись с полем в кавычках на несколько строк перечитывается посимвольно с метки
+        reader.mark(RECORD_MARK_LIMIT);
+        String line = reader.readLine();
+        if (line == null || line.indexOf(QUOTE_CHAR) < 0) return line;
+
+        int quotes = countQuotes(line);
+        if (quotes % 2 == 0) return line;
+
+        StringBuilder record = new StringBuilder();
+        boolean isQuoted = false;
+        if (line.length() + 2 <= RECORD_MARK_LIMIT) {
+            reader.reset(); // строка с переводом строки не длиннее RECORD_MARK_LIMIT, метка действительна
+        } else {
+            record.append(line).append('\n'); // метка уже недействительна, перевод строки не восстановить
+            isQuoted = true;
+        }
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (c == QUOTE_CHAR) {
+                isQuoted = !isQuoted; // удвоенная кавычка внутри поля меняет признак дважды
+            } else if (!isQuoted && (c == '\n' || c == '\r')) {
+                if (c == '\r') skipLineFeed(reader);
+                return record.toString();
+            }
+            record.append((char) c);
+        }
+        if (isQuoted) throw new ManagerSaveException("Не закрыта кавычка в записи файла CSV: '" + record + "'!");
+        return record.toString();
+    }
+
+    // пропуск '\n' после '\r' в конце записи
+    private static void skipLineFeed(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\n') reader.reset();
     }
 
     /**
      * Парсинг строки и создание задачи
      *
-     * @param value строка в формате CSV
+     * @param value  строка в формате CSV
+     * @param schema схема файла, полученная при проверке заголовка
      * @return новый объект - задача
      */
-    public static Task fromString(String value) {
-        String[] splitLine = value.split(CSV_SEPARATOR, NUMBER_OF_FIELDS_IN_CSV_FILE);
-        int id = parseIdFromString(splitLine[orderOfFields[1]]);
-        Status status = Status.valueOf(splitLine[orderOfFields[4]]);
-        LocalDateTime startTime = parseDateTimeFromString(splitLine[orderOfFields[6]]);
-        Duration duration = parseDurationFromString(splitLine[orderOfFields[7]]);
-        LocalDateTime endTime;
-        Task task;
+    public static Task fromString(String value, CsvSchema schema) {
+        return fromString(value, schema, ALL_FIELDS);
+    }
+
+    /**
+     * Парсинг строки и создание задачи только с указанными полями
+     * тип и ID задачи разбираются всегда, остальные поля, не вошедшие в список, не декодируются и остаются пустыми
+     *
+     * @param value  строка в формате CSV
+     * @param schema схема файла, полученная при проверке заголовка
+     * @param fields поля, которые нужно загрузить
+     * @return новый объект - задача
+     */
+    public static Task fromString(String value, CsvSchema schema, Set<CsvField> fields) {
+        int[] bounds = splitLine(value, schema.getNumberOfColumns());
+        int typeColumn = schema.indexOf(CsvField.TYPE);
+        TaskType type = parseEnum(TASK_TYPES, value, fieldBegin(bounds, typeColumn), fieldEnd(bounds, typeColumn),
+                "Не корректный тип задачи: ");
+        int idColumn = schema.indexOf(CsvField.ID);
+        int id = parseIdFromString(value, fieldBegin(bounds, idColumn), fieldEnd(bounds, idColumn));
+
+        String name = null;
+        String description = null;
+        Status status = null;
+        LocalDateTime startTime = null;
+        Duration duration = null;
+        int column;
+
+        if (fields.contains(CsvField.NAME)) {
+            column = schema.indexOf(CsvField.NAME);
+            name = fieldValue(value, bounds, column);
+        }
+        if (fields.contains(CsvField.DESCRIPTION)) {
+            column = schema.indexOf(CsvField.DESCRIPTION);
+            description = fieldValue(value, bounds, column);
+        }
+        if (fields.contains(CsvField.STATUS)) {
+            column = schema.indexOf(CsvField.STATUS);
+            status = parseEnum(STATUSES, value, fieldBegin(bounds, column), fieldEnd(bounds, column),
+                    "Не корректный статус задачи: ");
+        }
+        if (fields.contains(CsvField.START_TIME)) {
+            column = schema.indexOf(CsvField.START_TIME);
+            startTime = parseDateTimeFromString(value, fieldBegin(bounds, column), fieldEnd(bounds, column));
+        }
+        if (fields.contains(CsvField.DURATION)) {
+            column = schema.indexOf(CsvField.DURATION);
+            duration = parseDurationFromString(value, fieldBegin(bounds, column), fieldEnd(bounds, column));
+        }
 
-        switch (TaskType.valueOf(splitLine[orderOfFields[0]])) {
-            case TASK -> task = new Task(id, splitLine[orderOfFields[2]], splitLine[orderOfFields[3]], status,
-                    startTime, duration);
+        Task task;
+        switch (type) {
+            case TASK -> task = new Task(id, name, description, status, startTime, duration);
             case EPIC -> {
-                endTime = parseDateTimeFromString(splitLine[orderOfFields[8]]);
-                task = new Epic(id, splitLine[orderOfFields[2]], splitLine[orderOfFields[3]], status, startTime,
-                        duration, endTime);
+                LocalDateTime endTime = null;
+                if (fields.contains(CsvField.END_TIME)) {
+                    column = schema.indexOf(CsvField.END_TIME);
+                    endTime = parseDateTimeFromString(value, fieldBegin(bounds, column), fieldEnd(bounds, column));
+                }
+                task = new Epic(id, name, description, status, startTime, duration, endTime);
             }
             case SUBTASK -> {
-                int epicId = parseIdFromString(splitLine[orderOfFields[5]]);
-                task = new Subtask(id, splitLine[orderOfFields[2]], splitLine[orderOfFields[3]], status, epicId,
-                        startTime, duration);
+                int epicId = 0;
+                if (fields.contains(CsvField.EPIC)) {
+                    column = schema.indexOf(CsvField.EPIC);
+                    epicId = parseIdFromString(value, fieldBegin(bounds, column), fieldEnd(bounds, column));
+                }
+                task = new Subtask(id, name, description, status, epicId, startTime, duration);
             }
-            default -> throw new ManagerSaveException("Не корректный тип задачи: " + splitLine[orderOfFields[0]] + "!");
+            default -> throw new ManagerSaveException("Не корректный тип задачи: " + type + "!");
         }
         return task;
     }
 
+    // поиск поля по его наименованию в заголовке файла
+    private static CsvField findField(String header) {
+        for (CsvField field : CsvField.values()) {
+            if (field.getHeader().equals(header)) return field;
+        }
+        return null;
+    }
+
+    private static int fieldBegin(int[] bounds, int column) {
+        return bounds[BOUNDS_STRIDE * column];
+    }
+
+    private static int fieldEnd(int[] bounds, int column) {
+        return bounds[BOUNDS_STRIDE * column + 1];
+    }
+
+    // значение текстовой колонки: кавычки вокруг поля уже отброшены границами, удвоенные кавычки внутри заменяем
+    private static String fieldValue(String line, int[] bounds, int column) {
+        String value = line.substring(bounds[BOUNDS_STRIDE * column], bounds[BOUNDS_STRIDE * column + 1]);
+        if (bounds[BOUNDS_STRIDE * column + 2] == 0) return value;
+        return value.replace(ESCAPED_QUOTE, QUOTE);
+    }
+
+    // поиск границ колонок в строке без создания подстрок: для колонки i начало - bounds[3 * i],
+    // конец - bounds[3 * i + 1], bounds[3 * i + 2] = 1, если в поле есть экранированные кавычки
+    private static int[] splitLine(String line, int numberOfColumns) {
+        int[] bounds = new int[BOUNDS_STRIDE * numberOfColumns];
+        // быстрый путь: в строке нет кавычек, поля разделены только запятыми
+        if (line.indexOf(QUOTE_CHAR) < 0) {
+            int begin = 0;
+            for (int i = 0; i < numberOfColumns - 1; i++) {
+                int end = line.indexOf(CSV_SEPARATOR, begin);
+                if (end < 0) {
+                    throw new ManagerSaveException("Не хватает полей в строке файла CSV: '" + line + "'!");
+                }
+                bounds[BOUNDS_STRIDE * i] = begin;
+                bounds[BOUNDS_STRIDE * i + 1] = end;
+                begin = end + 1;
+            }
+            // последняя колонка забирает остаток строки
+            bounds[BOUNDS_STRIDE * (numberOfColumns - 1)] = begin;
+            bounds[BOUNDS_STRIDE * (numberOfColumns - 1) + 1] = line.length();
+            return bounds;
+        }
+        splitQuotedLine(line, bounds, numberOfColumns);
+        return bounds;
+    }
+
+    // разбор строки с полями в кавычках по RFC 4180
+    private static void splitQuotedLine(String line, int[] bounds, int numberOfColumns) {
+        int length = line.length();
+        int begin = 0;
+        for (int i = 0; i < numberOfColumns; i++) {
+            boolean isLast = i == numberOfColumns - 1;
+            int end;
+            int next;
+            if (begin < length && line.charAt(begin) == QUOTE_CHAR) {
+                int escaped = 0;
+                end = line.indexOf(QUOTE_CHAR, begin + 1);
+                while (end >= 0 && end + 1 < length && line.charAt(end + 1) == QUOTE_CHAR) {
+                    escaped = 1;
+                    end = line.indexOf(QUOTE_CHAR, end + 2);
+                }
+                if (end < 0) {
+                    throw new ManagerSaveException("Не закрыта кавычка в строке файла CSV: '" + line + "'!");
+                }
+                next = end + 1;
+                boolean isSeparatorNext = next < length && line.charAt(next) == CSV_SEPARATOR.charAt(0);
+                if (isLast ? next != length : !isSeparatorNext) {
+                    throw new ManagerSaveException("После закрывающей кавычки ожидается разделитель: '" + line +
+                            "'!");
+                }
+                bounds[BOUNDS_STRIDE * i] = begin + 1;
+                bounds[BOUNDS_STRIDE * i + 2] = escaped;
+            } else {
+                end = isLast ? length : line.indexOf(CSV_SEPARATOR, begin);
+                if (end < 0) {
+                    throw new ManagerSaveException("Не хватает полей в строке файла CSV: '" + line + "'!");
+                }
+                next = end;
+                bounds[BOUNDS_STRIDE * i] = begin;
+            }
+            bounds[BOUNDS_STRIDE * i + 1] = end;
+            begin = next + 1;
+        }
+    }
+
+    // подсчет кавычек в строке: нечетное количество означает, что поле в кавычках не закрыто
+    private static int countQuotes(String line) {
+        int quotes = 0;
+        for (int i = line.indexOf(QUOTE_CHAR); i >= 0; i = line.indexOf(QUOTE_CHAR, i + 1)) {
+            quotes++;
+        }
+        return quotes;
+    }
+
+    // поиск значения перечисления по его имени в заданном диапазоне строки
+    private static <E extends Enum<E>> E parseEnum(E[] values, String line, int begin, int end, String error) {
+        int length = end - begin;
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() == length && line.startsWith(name, begin)) return value;
+        }
+        throw new ManagerSaveException(error + line.substring(begin, end) + "!");
+    }
+
+    // проверка, что диапазон строки пустой или состоит только из пробелов
+    private static boolean isBlank(String line, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            if (!Character.isWhitespace(line.charAt(i))) return false;
+        }
+        return true;
+    }
+
     // парсинг строки и возврат числа - ID задачи
-    private static int parseIdFromString(String strId) {
+    private static int parseIdFromString(String line, int begin, int end) {
         int id;
         try {
-            id = Integer.parseInt(strId);
-            if (id <= 0) {
-                throw new ManagerSaveException("ID задачи должен быть больше нуля, а не '" + strId + "'!");
-            }
+            id = Integer.parseInt(line, begin, end, 10);
         } catch (NumberFormatException e) {
-            throw new ManagerSaveException("ID задачи должен быть числом, а не '" + strId + "'!");
+            throw new ManagerSaveException("ID задачи должен быть числом, а не '" + line.substring(begin, end) + "'!");
+        }
+        if (id <= 0) {
+            throw new ManagerSaveException("ID задачи должен быть больше нуля, а не '" + line.substring(begin, end) +
+                    "'!");
         }
         return id;
     }
 
     // парсинг строки со значением времени и возврат LocalDateTime
-    private static LocalDateTime parseDateTimeFromString(String strId) {
-        if (strId.isBlank()) return null;
+    private static LocalDateTime parseDateTimeFromString(String line, int begin, int end) {
+        if (isBlank(line, begin, end)) return null;
 
         long utcTime;
 
         try {
-            utcTime = Long.parseLong(strId);
-            if (utcTime <= 0) {
-                throw new ManagerSaveException("Время задачи должен быть больше нуля, а не '" + strId +
-                        "'!");
-            }
+            utcTime = Long.parseLong(line, begin, end, 10);
         } catch (NumberFormatException e) {
-            throw new ManagerSaveException("Время задачи должен быть числом, а не '" + strId + "'!");
+            throw new ManagerSaveException("Время задачи должен быть числом, а не '" + line.substring(begin, end) +
+                    "'!");
+        }
+        if (utcTime <= 0) {
+            throw new ManagerSaveException("Время задачи должен быть больше нуля, а не '" +
+                    line.substring(begin, end) + "'!");
         }
-        return LocalDateTime.ofInstant(Instant.ofEpochMilli(utcTime), ZoneOffset.UTC);
+        return fromUtcMillis(utcTime);
+    }
+
+    // время из миллисекунд UTC, как оно хранится в файле
+    static LocalDateTime fromUtcMillis(long utcTime) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(utcTime, 1000), Math.floorMod(utcTime, 1000) * 1_000_000,
+                ZoneOffset.UTC);
     }
 
     // парсинг строки со значением времени в минутах и возврат Duration
-    private static Duration parseDurationFromString(String strId) {
-        if (strId.isBlank()) return null;
+    private static Duration parseDurationFromString(String line, int begin, int end) {
+        if (isBlank(line, begin, end)) return null;
 
         long minutes;
 
         try {
-            minutes = Long.parseLong(strId);
-            if (minutes <= 0) {
-                throw new ManagerSaveException("Продолжительность задачи должен быть больше нуля, а не '" + strId +
-                        "'!");
-            }
+            minutes = Long.parseLong(line, begin, end, 10);
         } catch (NumberFormatException e) {
-            throw new ManagerSaveException("Продолжительность задачи должен быть числом, а не '" + strId + "'!");
+            throw new ManagerSaveException("Продолжительность задачи должен быть числом, а не '" +
+                    line.substring(begin, end) + "'!");
+        }
+        if (minutes <= 0) {
+            throw new ManagerSaveException("Продолжительность задачи должен быть больше нуля, а не '" +
+                    line.substring(begin, end) + "'!");
         }
         return Duration.ofMinutes(minutes);
     }
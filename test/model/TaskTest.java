@@ -3,6 +3,9 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class TaskTest {
@@ -23,4 +26,18 @@ class TaskTest {
         task2.setId(1);
         assertEquals(task1, task2, "Задачи с одинаковыми ID не равны");
     }
+
+    // строка CSV задачи совпадает со строкой, которую менеджер записывает в файл
+    @Test
+    void toCsvStringHasFileFormat() {
+        assertEquals("TASK,1,Почистить ковер,Отвезти в химчистку Ковер-33,NEW,,,,\n", task1.toCsvString(),
+                "Не верная строка CSV задачи");
+        Epic epic = new Epic(2, "Переезд", "Квартира, \"новая\"", Status.NEW, LocalDateTime.of(2024, 8, 5, 10, 0),
+                Duration.ofMinutes(47), LocalDateTime.of(2024, 8, 5, 10, 47));
+        assertEquals("EPIC,2,Переезд,\"Квартира, \"\"новая\"\"\",NEW,,1722852000000,47,1722854820000\n",
+                epic.toCsvString(), "Не верная строка CSV эпика");
+        Subtask subtask = new Subtask(3, "Грузчики", "Найти грузчиков", Status.DONE, 2, null, null);
+        assertEquals("SUBTASK,3,Грузчики,Найти грузчиков,DONE,2,,,\n", subtask.toCsvString(),
+                "Не верная строка CSV подзадачи");
+    }
 }
\ No newline at end of file
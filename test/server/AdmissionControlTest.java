@@ -0,0 +1,90 @@
+package server;
+
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import service.InMemoryTaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlTest {
+    private final CountDownLatch started = new CountDownLatch(1); // медленный запрос начал выполняться
+    private final CountDownLatch release = new CountDownLatch(1); // медленный запрос можно завершить
+    // менеджер, в котором получение приоритетных задач ждет разрешения теста
+    private final InMemoryTaskManager manager = new InMemoryTaskManager() {
+        @Override
+        public List<Task> getPrioritizedTasks() {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getPrioritizedTasks();
+        }
+    };
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpTaskServer taskServer;
+
+    @AfterEach
+    public void shutDown() {
+        release.countDown();
+        taskServer.stop();
+    }
+
+    @Test
+    public void rejectRequestsOverGlobalLimit() throws IOException, InterruptedException {
+        AdmissionControl admissionControl = new AdmissionControl(1, Duration.ofMillis(50), 2);
+        startServer(admissionControl);
+
+        CompletableFuture<HttpResponse<String>> slowResponse = send("/prioritized");
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Медленный запрос не начал выполняться!");
+        HttpResponse<String> response = send("/tasks").join();
+        assertEquals(503, response.statusCode(), "Запрос сверх ограничения не отклонен!");
+        assertEquals("2", response.headers().firstValue("Retry-After").orElse(""), "Нет заголовка Retry-After!");
+        assertEquals(1, admissionControl.getRejectedCount(), "Неверное количество отклоненных запросов!");
+
+        release.countDown();
+        assertEquals(200, slowResponse.join().statusCode(), "Медленный запрос не выполнен!");
+        assertEquals(200, send("/tasks").join().statusCode(), "Место для запроса не освободилось!");
+    }
+
+    @Test
+    public void rejectRequestsOverContextLimit() throws IOException, InterruptedException {
+        AdmissionControl admissionControl = new AdmissionControl(10, Duration.ofMillis(50), 1)
+                .withLimit("/prioritized", 1);
+        startServer(admissionControl);
+
+        CompletableFuture<HttpResponse<String>> slowResponse = send("/prioritized");
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Медленный запрос не начал выполняться!");
+        assertEquals(503, send("/prioritized").join().statusCode(), "Запрос сверх ограничения пути не отклонен!");
+        // ограничение пути не мешает другим путям
+        assertEquals(200, send("/tasks").join().statusCode(), "Запрос к другому пути отклонен!");
+
+        release.countDown();
+        assertEquals(200, slowResponse.join().statusCode(), "Медленный запрос не выполнен!");
+    }
+
+    private void startServer(AdmissionControl admissionControl) throws IOException {
+        taskServer = new HttpTaskServer(manager, ServerSettings.DEFAULT
+                .withExecutorType(ExecutorTypes.VIRTUAL_THREADS).withAdmissionControl(admissionControl));
+        taskServer.start();
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String path) {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).GET().build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,35 @@
+package server;
+
+import com.sun.net.httpserver.Headers;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionTest {
+
+    private static Headers acceptEncoding(String value) {
+        Headers headers = new Headers();
+        if (value != null) headers.add("Accept-Encoding", value);
+        return headers;
+    }
+
+    @Test
+    void isAcceptedByClientWithGzip() {
+        assertTrue(Compression.DEFAULT.isAcceptedBy(acceptEncoding("gzip")));
+        assertTrue(Compression.DEFAULT.isAcceptedBy(acceptEncoding("deflate, GZIP;q=0.8, br")));
+        assertTrue(Compression.DEFAULT.isAcceptedBy(acceptEncoding("*")));
+        assertFalse(Compression.DEFAULT.isAcceptedBy(acceptEncoding(null)), "Сжатие без Accept-Encoding");
+        assertFalse(Compression.DEFAULT.isAcceptedBy(acceptEncoding("deflate, br")), "Сжатие без gzip");
+        assertFalse(Compression.DEFAULT.isAcceptedBy(acceptEncoding("gzip;q=0")), "Сжатие с весом 0");
+        assertFalse(Compression.DISABLED.isAcceptedBy(acceptEncoding("gzip")), "Сжатие выключено");
+    }
+
+    @Test
+    void shouldBeExceptionWhenSettingsAreWrong() {
+        assertThrows(IllegalArgumentException.class, () -> new Compression(-1, 6));
+        assertThrows(IllegalArgumentException.class, () -> new Compression(1024, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Compression(1024, 10));
+    }
+}
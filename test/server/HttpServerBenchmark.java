@@ -0,0 +1,126 @@
+package server;
+
+import model.Task;
+import service.ConcurrentTaskManager;
+import service.FileBackedTaskManager;
+import service.Managers;
+import service.TaskManager;
+import utils.CsvWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Нагрузочный замер пропускной способности сервера для разных исполнителей запросов:
+ * только чтение задач по ID и чтение с 10% запросов на создание задачи с сохранением в файл.
+ * Запуск: java server.HttpServerBenchmark [количество клиентов] [секунд на замер]
+ */
+public class HttpServerBenchmark {
+    private static final int TASKS_COUNT = 100; // задач в менеджере перед замером
+    private static final int WARMUP_SECONDS = 2; // прогрев JIT перед замером
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        System.out.printf("ядер: %d, клиентов: %d%n", Runtime.getRuntime().availableProcessors(), clients);
+        HttpTaskServer.enableTcpNoDelay();
+
+        for (ExecutorTypes executorType : ExecutorTypes.values()) {
+            run("чтение", executorType, Managers::getConcurrent, 0, clients, seconds);
+        }
+        Path file = Files.createTempFile("benchmark", ".csv");
+        try {
+            for (ExecutorTypes executorType : ExecutorTypes.values()) {
+                run("чтение + 10% записи в файл", executorType, () -> createFileBackedManager(file), 10, clients,
+                        seconds);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(Path.of(file + ".history"));
+        }
+    }
+
+    // менеджер с сохранением в пустой файл (только заголовок)
+    private static TaskManager createFileBackedManager(Path file) {
+        try {
+            StringWriter header = new StringWriter();
+            try (CsvWriter csvWriter = new CsvWriter(header)) {
+                csvWriter.writeHeader();
+            }
+            Files.writeString(file, header.toString());
+            Files.deleteIfExists(Path.of(file + ".history"));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new ConcurrentTaskManager(FileBackedTaskManager.loadFromFile(file.toString()));
+    }
+
+    private static void run(String title, ExecutorTypes executorType, Supplier<TaskManager> managerSupplier,
+                            int writePercent, int clients, int seconds) throws Exception {
+        TaskManager manager = managerSupplier.get();
+        for (int i = 1; i <= TASKS_COUNT; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание " + i));
+        }
+        HttpTaskServer server = new HttpTaskServer(manager, ServerSettings.DEFAULT.withExecutorType(executorType));
+        server.start();
+        try {
+            measure(clients, WARMUP_SECONDS, writePercent);
+            long requests = measure(clients, seconds, writePercent);
+            System.out.printf("%s, %s: %d запросов/с%n", title, executorType, requests / seconds);
+        } finally {
+            server.stop();
+        }
+    }
+
+    // нагрузка от clients клиентов в течение seconds секунд, возвращает количество выполненных запросов
+    private static long measure(int clients, int seconds, int writePercent) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        String taskJson = "{\"name\":\"Задача\",\"description\":\"Описание\",\"status\":\"NEW\"}";
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder completed = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    HttpRequest request;
+                    if (random.nextInt(100) < writePercent) {
+                        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks"))
+                                .POST(HttpRequest.BodyPublishers.ofString(taskJson)).build();
+                    } else {
+                        int id = random.nextInt(1, TASKS_COUNT + 1);
+                        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks/" + id))
+                                .GET().build();
+                    }
+                    try {
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                        completed.increment();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        client.close();
+        return completed.sum();
+    }
+}
@@ -0,0 +1,108 @@
+package server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.Epic;
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.InMemoryTaskManager;
+import service.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpTaskManagerBatchTest {
+
+    // создаём экземпляр InMemoryTaskManager
+    TaskManager manager = new InMemoryTaskManager();
+    // передаём его в качестве аргумента в конструктор HttpTaskServer
+    HttpTaskServer taskServer = new HttpTaskServer(manager);
+    HttpClient client = HttpClient.newHttpClient();
+    URI url = URI.create("http://localhost:8080/batch");
+    HttpRequest request;
+    HttpResponse<String> response;
+
+    public HttpTaskManagerBatchTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    public void postBatch() throws IOException, InterruptedException {
+        manager.addTask(new Task("Task 1", "Task 1")); // ID = 1
+        String batch = """
+                [
+                  {"action": "CREATE", "type": "EPIC", "task": {"name": "Epic 1", "description": "Epic 1"}},
+                  {"action": "CREATE", "type": "SUBTASK", "epicRef": 0,
+                   "task": {"name": "Subtask 1", "description": "Subtask 1", "status": "DONE"}},
+                  {"action": "CREATE", "type": "SUBTASK", "epicRef": 0,
+                   "task": {"name": "Subtask 2", "description": "Subtask 2", "status": "DONE",
+                            "startTime": "01.05.2024 10:00", "duration": 30}},
+                  {"action": "UPDATE", "type": "TASK",
+                   "task": {"id": 1, "name": "Task 1", "description": "Task 1", "status": "IN_PROGRESS"}},
+                  {"action": "DELETE", "type": "TASK", "id": 1}
+                ]""";
+        request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(batch)).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+
+        JsonArray results = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(5, results.size(), "Не верное количество результатов пакета!");
+        JsonObject epicResult = results.get(0).getAsJsonObject();
+        assertEquals("CREATE", epicResult.get("action").getAsString());
+        assertEquals("EPIC", epicResult.get("type").getAsString());
+        int epicId = epicResult.get("id").getAsInt();
+        Epic epic = manager.getEpicById(epicId);
+        assertEquals(2, manager.getEpicSubtasks(epic).size(), "Подзадачи не добавлены в эпик!");
+        assertEquals(Status.DONE, epic.getStatus(), "Не рассчитан статус эпика!");
+        assertTrue(manager.getTasks().isEmpty(), "Задача не удалена!");
+        assertEquals(1, manager.getPrioritizedTasks().size(), "Не верный список приоритетных задач!");
+    }
+
+    @Test
+    public void postBatchWithErrors() throws IOException, InterruptedException {
+        manager.addTask(new Task("Task 1", "Task 1")); // ID = 1
+
+        // вторая операция удаляет несуществующую задачу - первая тоже не выполняется
+        String batch = """
+                [{"action": "DELETE", "type": "TASK", "id": 1}, {"action": "DELETE", "type": "TASK", "id": 5}]""";
+        request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(batch)).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, response.statusCode());
+        assertEquals(1, manager.getTasks().size(), "Пакет с ошибкой выполнен частично!");
+
+        // неизвестное действие, ID и ссылка не целые числа, ссылка не на эпик, не массив, синтаксическая ошибка
+        for (String wrongBatch : new String[]{
+                "[{\"action\": \"MOVE\", \"type\": \"TASK\", \"id\": 1}]",
+                "[{\"action\": \"DELETE\", \"type\": \"TASK\", \"id\": \"abc\"}]",
+                "[{\"action\": \"DELETE\", \"type\": \"TASK\", \"id\": {}}]",
+                "[{\"action\": \"DELETE\", \"type\": \"TASK\", \"id\": 1.5}]",
+                "[{\"action\": \"CREATE\", \"type\": \"SUBTASK\", \"epicRef\": [0], \"task\": {\"name\": \"S\"}}]",
+                "[{\"action\": \"CREATE\", \"type\": \"SUBTASK\", \"epicRef\": 0, \"task\": {\"name\": \"S\"}}]",
+                "{\"action\": \"DELETE\"}",
+                "[{\"action\": "}) {
+            request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(wrongBatch)).build();
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(406, response.statusCode(), wrongBatch);
+        }
+        assertEquals(1, manager.getTasks().size(), "Пакет с ошибкой выполнен частично!");
+    }
+}
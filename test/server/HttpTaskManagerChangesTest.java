@@ -0,0 +1,86 @@
+package server;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.InMemoryTaskManager;
+import service.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpTaskManagerChangesTest {
+
+    // создаём экземпляр InMemoryTaskManager
+    TaskManager manager = new InMemoryTaskManager();
+    // передаём его в качестве аргумента в конструктор HttpTaskServer
+    HttpTaskServer taskServer = new HttpTaskServer(manager);
+    HttpClient client = HttpClient.newHttpClient();
+    HttpRequest request;
+    HttpResponse<String> response;
+
+    public HttpTaskManagerChangesTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    public void getChangesSinceVersion() throws IOException, InterruptedException {
+        Task task1 = new Task("Task 1", "Task 1");
+        manager.addTask(task1);
+        String syncToken = manager.getSyncToken();
+        Task task2 = new Task("Task 2", "Task 2");
+        manager.addTask(task2);
+        manager.deleteTaskById(task1.getId());
+
+        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/changes?since=" + syncToken))
+                .GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Неверный код ответа!");
+        JsonObject changes = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(manager.getVersion(), changes.get("version").getAsLong(), "Неверная версия изменений!");
+        assertEquals(manager.getSyncToken(), changes.get("syncToken").getAsString(), "Неверный токен синхронизации!");
+        assertFalse(changes.get("resync").getAsBoolean(), "Лишний признак полной загрузки!");
+        assertEquals(1, changes.getAsJsonArray("tasks").size(), "Неверное количество измененных задач!");
+        assertEquals(task2.getId(), changes.getAsJsonArray("tasks").get(0).getAsJsonObject().get("id").getAsInt(),
+                "Неверная измененная задача!");
+        assertEquals(task1.getId(), changes.getAsJsonArray("deleted").get(0).getAsJsonObject().get("id").getAsInt(),
+                "Неверная удаленная задача!");
+
+        // токен другого (прежнего) менеджера - нужна полная загрузка
+        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/changes?since="
+                + new InMemoryTaskManager().getSyncToken())).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Неверный код ответа!");
+        changes = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertTrue(changes.get("resync").getAsBoolean(), "Нет признака полной загрузки!");
+    }
+
+    @Test
+    public void getChangesWithoutVersion() throws IOException, InterruptedException {
+        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/changes")).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Неверный код ответа!");
+        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/changes?since=abc")).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Неверный код ответа!");
+    }
+}
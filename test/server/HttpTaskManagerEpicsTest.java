@@ -235,4 +235,23 @@ public class HttpTaskManagerEpicsTest {
         epicsFromManager = manager.getEpics();
         assertEquals(1, epicsFromManager.size(), "Измениись эпики!");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getEpicsWithFields() throws IOException, InterruptedException {
+        Epic epic = new Epic("Epic 1", "Epic 1");
+        manager.addEpic(epic); // ID = 1
+        manager.addSubtask(new Subtask(epic, "Subtask 1", "Subtask 1")); // ID = 2
+        url = URI.create("http://localhost:8080/epics?fields=id,subTasksId");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("[{\"id\":1,\"subTasksId\":[2]}]", response.body(), "Неверный ответ с отбором полей!");
+
+        // поля пишутся только для задач, у которых они есть: epicId - у подзадач, subTasksId - у эпиков
+        url = URI.create("http://localhost:8080/epics/1/subtasks?fields=name,epicId,subTasksId");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("[{\"name\":\"Subtask 1\",\"epicId\":1}]", response.body(), "Неверный ответ с отбором полей!");
+    }
+}
@@ -0,0 +1,223 @@
+package server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.handlers.EventsHandler;
+import service.ChangeListener;
+import service.InMemoryTaskManager;
+import service.TaskManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpTaskManagerEventsTest {
+
+    // создаём экземпляр InMemoryTaskManager
+    TaskManager manager = new InMemoryTaskManager();
+    // передаём его в качестве аргумента в конструктор HttpTaskServer
+    HttpTaskServer taskServer = new HttpTaskServer(manager);
+    HttpClient client = HttpClient.newHttpClient();
+    URI url = URI.create("http://localhost:8080/events");
+
+    public HttpTaskManagerEventsTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    public void getEventsStream() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode(), "Неверный код ответа!");
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"),
+                "Неверный тип содержимого!");
+
+        Iterator<String> lines = response.body().iterator();
+        assertEquals(": connected", lines.next(), "Нет начала потока событий!");
+        assertEquals("", lines.next(), "Нет конца события!");
+
+        // клиент уже подписан, когда получил заголовки ответа
+        Task task = new Task("Задача 1", "Описание 1");
+        manager.addTask(task);
+        assertEquals("id: " + manager.getVersion(), lines.next(), "Неверный ID события!");
+        assertEquals("event: change", lines.next(), "Неверный тип события!");
+        assertEquals("data: {\"change\":\"ADD\",\"type\":\"TASK\",\"id\":" + task.getId() + ",\"version\":"
+                + manager.getVersion() + "}", lines.next(), "Неверные данные события!");
+        assertEquals("", lines.next(), "Нет конца события!");
+
+        manager.deleteTaskById(task.getId());
+        assertEquals("id: " + manager.getVersion(), lines.next(), "Неверный ID события!");
+        assertEquals("event: change", lines.next(), "Неверный тип события!");
+        assertTrue(lines.next().contains("\"change\":\"DELETE\""), "Неверные данные события!");
+        assertEquals("", lines.next(), "Нет конца события!");
+
+        // при остановке сервера поток событий закрывается
+        taskServer.stop();
+        assertFalse(lines.hasNext(), "Поток событий не закрыт!");
+    }
+
+    @Test
+    public void postEventsNotFound() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, response.statusCode(), "Неверный код ответа!");
+    }
+
+    // если заголовки ответа не отправились, подписка на изменения снимается
+    @Test
+    public void unsubscribeWhenSendHeadersFailed() {
+        AtomicInteger listeners = new AtomicInteger();
+        TaskManager countingManager = countingListeners(listeners);
+        EventsHandler handler = new EventsHandler(countingManager);
+        assertThrows(IOException.class, () -> handler.handle(new BrokenExchange()), "Нет ошибки отправки!");
+        assertEquals(0, handler.getSubscribersCount(), "Подписчик остался после ошибки отправки!");
+        assertEquals(0, listeners.get(), "Подписка на изменения осталась после ошибки отправки!");
+    }
+
+    // при остановке сервера обработчики отписываются от изменений менеджера (кэши ответов, потоки событий)
+    @Test
+    public void removeChangeListenersWhenServerStopped() throws IOException {
+        taskServer.stop();
+        AtomicInteger listeners = new AtomicInteger();
+        HttpTaskServer countingServer = new HttpTaskServer(countingListeners(listeners));
+        countingServer.start();
+        assertTrue(listeners.get() > 0, "Обработчики не подписаны на изменения!");
+        countingServer.stop();
+        assertEquals(0, listeners.get(), "Подписки на изменения остались после остановки сервера!");
+    }
+
+    // менеджер, который считает подписки на изменения
+    private static TaskManager countingListeners(AtomicInteger listeners) {
+        return new InMemoryTaskManager() {
+            @Override
+            public void addChangeListener(ChangeListener listener) {
+                listeners.incrementAndGet();
+                super.addChangeListener(listener);
+            }
+
+            @Override
+            public void removeChangeListener(ChangeListener listener) {
+                listeners.decrementAndGet();
+                super.removeChangeListener(listener);
+            }
+        };
+    }
+
+    // запрос GET /events, у которого отправка заголовков ответа завершается ошибкой (клиент отключился)
+    private static class BrokenExchange extends HttpExchange {
+        private final Headers requestHeaders = new Headers();
+        private final Headers responseHeaders = new Headers();
+
+        @Override
+        public Headers getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return responseHeaders;
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return URI.create("/events");
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return "GET";
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+            throw new IOException("Connection reset");
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return -1;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public String getProtocol() {
+            return "HTTP/1.1";
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return null;
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+        }
+
+        @Override
+        public void setStreams(InputStream i, OutputStream o) {
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return null;
+        }
+    }
+}
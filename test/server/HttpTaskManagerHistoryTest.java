@@ -15,6 +15,8 @@ import org.junit.jupiter.api.Test;
 import server.adapters.DurationAdapter;
 import server.adapters.LocalDateTimeAdapter;
 import service.InMemoryTaskManager;
+import service.Managers;
+import service.SessionHistoryManager;
 import service.TaskManager;
 
 import java.io.IOException;
@@ -106,4 +108,89 @@ public class HttpTaskManagerHistoryTest {
         }.getType());
         assertTrue(history.isEmpty(), "Список историии просмотров не пустой!");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getHistoryWithLimit() throws IOException, InterruptedException {
+        for (int i = 1; i <= 5; i++) {
+            manager.addTask(new Task("Task " + i, "Task " + i)); // ID = i
+            manager.getTaskById(i);
+        }
+
+        url = URI.create("http://localhost:8080/history?limit=2");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        List<Task> history = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        assertEquals(2, history.size(), "Не верный размер списка последних просмотров!");
+        assertEquals(4, history.getFirst().getId(), "Список последних просмотров не совпадает!");
+        assertEquals(5, history.get(1).getId(), "Список последних просмотров не совпадает!");
+
+        // неправильный лимит
+        url = URI.create("http://localhost:8080/history?limit=two");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode());
+    }
+
+    @Test
+    public void getHistoryBySession() throws IOException, InterruptedException {
+        // перезапустим сервер с историей по сессиям клиентов
+        taskServer.stop();
+        SessionHistoryManager sessionHistory = Managers.getSessionHistory(10, 100, Duration.ofMinutes(30));
+        TaskManager sessionManager = new InMemoryTaskManager(sessionHistory);
+        taskServer = new HttpTaskServer(sessionManager, ServerSettings.DEFAULT.withSessionHistory(sessionHistory));
+        taskServer.start();
+        sessionManager.addTask(new Task("Task 1", "Task 1")); // ID = 1
+        sessionManager.addTask(new Task("Task 2", "Task 2")); // ID = 2
+
+        // первый клиент смотрит задачу 1, второй - задачу 2
+        for (int id = 1; id <= 2; id++) {
+            url = URI.create("http://localhost:8080/tasks/" + id);
+            request = HttpRequest.newBuilder().uri(url).header(SessionFilter.SESSION_HEADER, "client-" + id)
+                    .GET().build();
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+        }
+
+        for (int id = 1; id <= 2; id++) {
+            url = URI.create("http://localhost:8080/history");
+            request = HttpRequest.newBuilder().uri(url).header(SessionFilter.SESSION_HEADER, "client-" + id)
+                    .GET().build();
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            List<Task> history = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+            }.getType());
+            assertEquals(1, history.size(), "В истории сессии чужие просмотры!");
+            assertEquals(id, history.getFirst().getId(), "Список историии просмотров сессии не совпадает!");
+        }
+
+        // без заголовка сессии - общая история, в которой просмотров не было
+        url = URI.create("http://localhost:8080/history");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals("[]", response.body(), "В общей истории просмотры сессий!");
+    }
+
+    @Test
+    public void getHistoryWithETag() throws IOException, InterruptedException {
+        manager.addTask(new Task("Task 1", "Task 1")); // ID = 1
+        manager.addTask(new Task("Task 2", "Task 2")); // ID = 2
+        manager.getTaskById(1);
+        url = URI.create("http://localhost:8080/history");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String etag = response.headers().firstValue("ETag").orElse(null);
+
+        request = HttpRequest.newBuilder().uri(url).header("If-None-Match", etag).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, response.statusCode());
+
+        // просмотр задачи меняет историю, хотя версия менеджера та же
+        manager.getTaskById(2);
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        List<Task> history = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        assertEquals(2, history.size(), "Список историии просмотров не совпадает!");
+    }
+}
@@ -0,0 +1,117 @@
+package server;
+
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.InMemoryTaskManager;
+import service.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpTaskManagerImportTest {
+    private static final String HEADER = "type,id,name,description,status,epic,starttime,duration,endtime\n";
+
+    // создаём экземпляр InMemoryTaskManager
+    TaskManager manager = new InMemoryTaskManager();
+    // передаём его в качестве аргумента в конструктор HttpTaskServer
+    HttpTaskServer taskServer = new HttpTaskServer(manager);
+    HttpClient client;
+    HttpRequest request;
+    URI url;
+    HttpResponse<String> response;
+
+    public HttpTaskManagerImportTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        manager.deleteTasks();
+        manager.deleteSubtasks();
+        manager.deleteEpics();
+        taskServer.start();
+        client = HttpClient.newHttpClient();
+        url = URI.create("http://localhost:8080/import");
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    public void importTasks() throws IOException, InterruptedException {
+        // подзадача идет в пакете раньше своего эпика, порядок строк не важен
+        String csv = HEADER +
+                "TASK,1,Task 1,Task 1,NEW,,1722852000000,30,\n" +
+                "SUBTASK,3,Subtask 1,Subtask 1,DONE,2,1722859200000,15,\n" +
+                "EPIC,2,Epic 1,Epic 1,NEW,,,,\n";
+        request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(csv)).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, response.statusCode());
+
+        assertEquals(1, manager.getTasks().size(), "Некорректное количество задач!");
+        assertEquals(1, manager.getEpics().size(), "Некорректное количество эпиков!");
+        assertEquals(1, manager.getSubtasks().size(), "Некорректное количество подзадач!");
+        assertEquals(Status.DONE, manager.getEpicById(2).getStatus(), "Не обновился статус эпика!");
+        assertEquals(LocalDateTime.of(2024, 8, 5, 12, 0), manager.getEpicById(2).getStartTime(),
+                "Не обновилось время эпика!");
+        assertEquals(2, manager.getPrioritizedTasks().size(), "Задачи не попали в сортированный список!");
+
+        // новая задача после импорта должна получить следующий свободный ID
+        manager.addTask(new Task("Task 4", "Task 4"));
+        assertTrue(manager.getTasks().stream().anyMatch(task -> task.getId() == 4), "ID задач не актуализировался!");
+    }
+
+    @Test
+    public void importTasksWithCrossingTime() throws IOException, InterruptedException {
+        // задачи пакета пересекаются по времени между собой, ничего не должно добавиться
+        String csv = HEADER +
+                "TASK,1,Task 1,Task 1,NEW,,1722852000000,30,\n" +
+                "TASK,2,Task 2,Task 2,NEW,,1722852600000,30,\n";
+        request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(csv)).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Должна быть ошибка 406 - время пересекается!");
+        assertTrue(manager.getTasks().isEmpty(), "Задачи не должны были быть добавлены!");
+    }
+
+    @Test
+    public void importTasksWithExistingId() throws IOException, InterruptedException {
+        manager.addTask(new Task("Task 1", "Task 1")); // ID = 1
+        String csv = HEADER +
+                "TASK,2,Task 2,Task 2,NEW,,,,\n" +
+                "TASK,1,Task 1,Task 1,NEW,,,,\n";
+        request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(csv)).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Должна быть ошибка 406 - задача с таким ID уже есть!");
+        assertEquals(1, manager.getTasks().size(), "Задачи не должны были быть добавлены!");
+    }
+
+    @Test
+    public void importWrongCsv() throws IOException, InterruptedException {
+        // нет заголовка
+        request = HttpRequest.newBuilder().uri(url)
+                .POST(HttpRequest.BodyPublishers.ofString("TASK,1,Task 1,Task 1,NEW,,,,\n")).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Должна быть ошибка 406 - поврежден заголовок!");
+
+        // пустое тело
+        request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString("")).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Должна быть ошибка 406 - пустой файл!");
+
+        // неверный метод
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, response.statusCode());
+    }
+}
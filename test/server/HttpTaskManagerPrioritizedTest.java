@@ -102,4 +102,42 @@ public class HttpTaskManagerPrioritizedTest {
         }.getType());
         assertTrue(history.isEmpty(), "Отсортированный список не пустой!");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getPrioritizedWithFilter() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        manager.addTask(new Task("Task 1", "Task 1", Status.NEW, start, Duration.ofMinutes(5))); // ID = 1
+        manager.addTask(new Task("Task 2", "Task 2", Status.DONE, start.plusDays(1), Duration.ofMinutes(5))); // ID = 2
+        Epic epic = new Epic("Epic 1", "Epic 1");
+        manager.addEpic(epic); // ID = 3
+        manager.addSubtask(new Subtask(epic, "Subtask 1", "Subtask 1", Status.DONE, start.plusDays(2),
+                Duration.ofMinutes(5))); // ID = 4
+        manager.addTask(new Task("Task 3", "Task 3", Status.NEW, start.plusDays(8), Duration.ofMinutes(5))); // ID = 5
+
+        // неделя с 01.05.2024 10:00, конец интервала не включается
+        assertEquals(List.of(1, 2, 4), getPrioritizedIds("?from=01.05.2024%2010:00&to=08.05.2024%2010:00"));
+        assertEquals(List.of(2, 4), getPrioritizedIds("?status=DONE"));
+        assertEquals(List.of(4), getPrioritizedIds("?status=DONE&type=SUBTASK"));
+        assertEquals(List.of(4), getPrioritizedIds("?epic=3"));
+        assertEquals(List.of(4, 5), getPrioritizedIds("?from=02.05.2024%2012:00"));
+
+        url = URI.create("http://localhost:8080/prioritized?status=UNKNOWN");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Неверный статус должен давать ошибку 406!");
+        url = URI.create("http://localhost:8080/prioritized?from=08.05.2024%2010:00&to=01.05.2024%2010:00");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Неверный интервал должен давать ошибку 406!");
+    }
+
+    private List<Integer> getPrioritizedIds(String query) throws IOException, InterruptedException {
+        url = URI.create("http://localhost:8080/prioritized" + query);
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Неверный код ответа для " + query);
+        List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
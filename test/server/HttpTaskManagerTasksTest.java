@@ -5,6 +5,7 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import model.Epic;
 import model.Status;
 import model.Task;
 import org.junit.jupiter.api.AfterEach;
@@ -12,17 +13,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import server.adapters.DurationAdapter;
 import server.adapters.LocalDateTimeAdapter;
+import service.ConcurrentHistoryManager;
+import service.ConcurrentTaskManager;
 import service.InMemoryTaskManager;
+import service.Managers;
 import service.TaskManager;
+import utils.BinaryTaskReader;
+import utils.BinaryTaskWriter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -175,6 +188,7 @@ public class HttpTaskManagerTasksTest {
         request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(taskJson)).build();
         response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(201, response.statusCode());
+        assertTrue(manager.getHistory().isEmpty(), "Обновление задачи попало в историю просмотров!");
         List<Task> tasksFromManager = manager.getTasks();
         assertNotNull(tasksFromManager, "Задачи не возвращаются!");
         assertEquals(3, tasksFromManager.size(), "Некорректное количество задач!");
@@ -217,4 +231,261 @@ public class HttpTaskManagerTasksTest {
         assertTrue(tasksFromManager.stream().noneMatch(t -> t.getId() == 2),
                 "Задача не удалилась!");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void addTasksConcurrentlyWithExecutors() throws IOException, InterruptedException {
+        taskServer.stop();
+        for (ExecutorTypes executorType : ExecutorTypes.values()) {
+            // перезапустим сервер с потокобезопасным менеджером и заданным исполнителем запросов
+            TaskManager concurrentManager = Managers.getConcurrent();
+            taskServer = new HttpTaskServer(concurrentManager, ServerSettings.DEFAULT.withExecutorType(executorType));
+            taskServer.start();
+
+            // отправим одновременно несколько запросов на создание задач
+            url = URI.create("http://localhost:8080/tasks");
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 1; i <= 50; i++) {
+                String taskJson = gson.toJson(new Task("Task " + i, "Task " + i));
+                request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(taskJson)).build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> future : responses) {
+                assertEquals(201, future.join().statusCode(), "Задача не создана, исполнитель " + executorType);
+            }
+            assertEquals(50, concurrentManager.getTasks().size(), "Потеряны задачи, исполнитель " + executorType);
+            taskServer.stop();
+        }
+        taskServer = new HttpTaskServer(manager); // для остановки сервера после теста
+        taskServer.start();
+    }
+
+    @Test
+    public void getTasksAsCompactChunkedJson() throws IOException, InterruptedException {
+        manager.addTask(new Task("Task 1", "Task 1", Status.NEW, LocalDateTime.now(), Duration.ofMinutes(5)));
+        manager.addTask(new Task("Task 2", "Task 2"));
+        url = URI.create("http://localhost:8080/tasks");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertFalse(response.body().contains("\n"), "JSON в ответе с форматированием!");
+        List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        assertEquals(manager.getTasks(), tasks, "Список задач не совпадает!");
+
+        // одна задача сериализуется прямо в поток ответа
+        url = URI.create("http://localhost:8080/tasks/1");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(""),
+                "Ответ передается не частями!");
+    }
+
+    @Test
+    public void getTasksFromResponseCache() throws IOException, InterruptedException {
+        manager.addTask(new Task("Task 1", "Task 1"));
+        url = URI.create("http://localhost:8080/tasks");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String firstBody = response.body();
+        // готовый ответ отправляется с известной длиной
+        assertEquals(String.valueOf(firstBody.getBytes(StandardCharsets.UTF_8).length),
+                response.headers().firstValue("Content-Length").orElse(""), "Неверная длина ответа!");
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(firstBody, response.body(), "Ответ из кэша не совпадает!");
+
+        // изменение эпиков не сбрасывает кэш задач, изменение задач - сбрасывает
+        manager.addEpic(new Epic("Epic 1", "Epic 1"));
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(firstBody, response.body(), "Ответ из кэша не совпадает!");
+        manager.addTask(new Task("Task 2", "Task 2"));
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        assertEquals(manager.getTasks(), tasks, "Кэш не сброшен после изменения задач!");
+
+        // сжатый ответ тоже берется из кэша
+        for (int i = 0; i < 30; i++) {
+            manager.addTask(new Task("Task with long name " + i, "Task with long description " + i));
+        }
+        request = HttpRequest.newBuilder().uri(url).header("Accept-Encoding", "gzip").GET().build();
+        HttpResponse<byte[]> gzipResponse = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("gzip", gzipResponse.headers().firstValue("Content-Encoding").orElse(""), "Ответ не сжат!");
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipResponse.body()))) {
+            tasks = gson.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8),
+                    new TypeToken<List<Task>>() {
+                    }.getType());
+        }
+        assertEquals(manager.getTasks(), tasks, "Список задач не совпадает!");
+    }
+
+    @Test
+    public void getTasksWithETag() throws IOException, InterruptedException {
+        manager.addTask(new Task("Task 1", "Task 1"));
+        url = URI.create("http://localhost:8080/tasks");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag, "В ответе нет ETag!");
+
+        // данные не менялись - 304 без тела
+        request = HttpRequest.newBuilder().uri(url).header("If-None-Match", etag).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, response.statusCode());
+        assertTrue(response.body().isEmpty(), "В ответе 304 есть тело!");
+
+        // после изменения - новые данные и новый тег
+        manager.addTask(new Task("Task 2", "Task 2"));
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertNotEquals(etag, response.headers().firstValue("ETag").orElse(null), "Тег не изменился!");
+        List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        assertEquals(2, tasks.size(), "Список задач не совпадает!");
+    }
+
+    // запрос во время изменения получает согласованные тег и тело, и после изменения его тег уже не совпадает
+    @Test
+    public void getTasksDuringWriteWithETag() throws IOException, InterruptedException {
+        taskServer.stop();
+        TaskManager concurrentManager = new ConcurrentTaskManager(new InMemoryTaskManager(
+                new ConcurrentHistoryManager()));
+        url = URI.create("http://localhost:8080/tasks");
+        List<HttpResponse<String>> duringWrite = new ArrayList<>();
+        // подписчик раньше кэша ответа: запрос выполняется, пока изменение еще не закончено
+        concurrentManager.addChangeListener(change -> {
+            if (!duringWrite.isEmpty()) return;
+            try {
+                duringWrite.add(client.send(HttpRequest.newBuilder().uri(url).timeout(Duration.ofSeconds(5)).GET()
+                        .build(), HttpResponse.BodyHandlers.ofString()));
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        HttpTaskServer concurrentServer = new HttpTaskServer(concurrentManager);
+        concurrentServer.start();
+        try {
+            request = HttpRequest.newBuilder().uri(url).GET().build();
+            response = client.send(request, HttpResponse.BodyHandlers.ofString()); // ответ попадает в кэш
+            String etag = response.headers().firstValue("ETag").orElse(null);
+            concurrentManager.addTask(new Task("Task 1", "Task 1"));
+
+            assertEquals(1, duringWrite.size(), "Запрос во время изменения не выполнен!");
+            HttpResponse<String> writeResponse = duringWrite.get(0);
+            assertEquals("[]", writeResponse.body(), "Неверный ответ во время изменения!");
+            assertEquals(etag, writeResponse.headers().firstValue("ETag").orElse(null),
+                    "Тег новее данных ответа!");
+
+            request = HttpRequest.newBuilder().uri(url).header("If-None-Match", etag).GET().build();
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), "Устаревший тег совпал после изменения!");
+            List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+            }.getType());
+            assertEquals(1, tasks.size(), "Список задач не совпадает!");
+        } finally {
+            concurrentServer.stop();
+        }
+    }
+
+    @Test
+    public void getTasksWithGzip() throws IOException, InterruptedException {
+        // маленький ответ не сжимается
+        manager.addTask(new Task("Task 0", "Task 0"));
+        url = URI.create("http://localhost:8080/tasks");
+        request = HttpRequest.newBuilder().uri(url).header("Accept-Encoding", "gzip").GET().build();
+        HttpResponse<byte[]> bytesResponse = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, bytesResponse.statusCode());
+        assertTrue(bytesResponse.headers().firstValue("Content-Encoding").isEmpty(), "Сжат маленький ответ!");
+        assertEquals(manager.getTasks(), gson.fromJson(new String(bytesResponse.body(), StandardCharsets.UTF_8),
+                new TypeToken<List<Task>>() {
+                }.getType()), "Список задач не совпадает!");
+
+        // большой ответ сжимается, если клиент принимает gzip
+        for (int i = 1; i <= 100; i++) {
+            manager.addTask(new Task("Task " + i, "Task " + i));
+        }
+        bytesResponse = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, bytesResponse.statusCode());
+        assertEquals("gzip", bytesResponse.headers().firstValue("Content-Encoding").orElse(""), "Ответ не сжат!");
+        String json;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytesResponse.body()))) {
+            json = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(bytesResponse.body().length * 5 < json.length(), "Ответ плохо сжат!");
+        assertEquals(manager.getTasks(), gson.fromJson(json, new TypeToken<List<Task>>() {
+        }.getType()), "Список задач не совпадает!");
+
+        // клиент не принимает gzip
+        request = HttpRequest.newBuilder().uri(url).header("Accept-Encoding", "gzip;q=0").GET().build();
+        bytesResponse = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertTrue(bytesResponse.headers().firstValue("Content-Encoding").isEmpty(), "Ответ сжат без согласия!");
+    }
+
+    @Test
+    public void getTasksWithFields() throws IOException, InterruptedException {
+        manager.addTask(new Task("Task 1", "Long description 1", Status.DONE,
+                LocalDateTime.of(2024, 5, 1, 10, 0), Duration.ofMinutes(5)));
+        manager.addTask(new Task("Task 2", "Long description 2"));
+        url = URI.create("http://localhost:8080/tasks?fields=status,id,name");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        // поля в порядке полного ответа, остальные поля не отправляются
+        assertEquals("[{\"id\":1,\"name\":\"Task 1\",\"status\":\"DONE\"},{\"id\":2,\"name\":\"Task 2\","
+                + "\"status\":\"NEW\"}]", response.body(), "Неверный ответ с отбором полей!");
+
+        url = URI.create("http://localhost:8080/tasks/1?fields=id,startTime,duration");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        Task task = gson.fromJson(response.body(), Task.class);
+        assertEquals(manager.getTaskById(1).getStartTime(), task.getStartTime(), "Неверное время начала!");
+        assertEquals(manager.getTaskById(1).getDuration(), task.getDuration(), "Неверная продолжительность!");
+        assertNull(task.getName(), "Лишнее поле в ответе!");
+
+        url = URI.create("http://localhost:8080/tasks?fields=id,secret");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Неизвестное поле должно давать ошибку 406!");
+    }
+
+    @Test
+    public void getAndPostTasksInBinaryFormat() throws IOException, InterruptedException {
+        manager.addTask(new Task("Task 1", "Task 1", Status.DONE, LocalDateTime.of(2024, 5, 1, 10, 0),
+                Duration.ofMinutes(5)));
+        url = URI.create("http://localhost:8080/tasks");
+        request = HttpRequest.newBuilder().uri(url).header("Accept", ContentTypes.BINARY.getValue()).GET().build();
+        HttpResponse<byte[]> binaryResponse = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, binaryResponse.statusCode());
+        assertEquals(ContentTypes.BINARY.getValue(), binaryResponse.headers().firstValue("Content-Type").orElse(""),
+                "Ответ не в двоичном формате!");
+        List<Task> tasks = new BinaryTaskReader(new ByteArrayInputStream(binaryResponse.body())).readTasks();
+        assertEquals(manager.getTasks(), tasks, "Список задач не совпадает!");
+        assertEquals(manager.getTaskById(1).getStartTime(), tasks.get(0).getStartTime(), "Неверное время начала!");
+
+        // создание задачи из тела запроса в двоичном формате
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        BinaryTaskWriter writer = new BinaryTaskWriter(body);
+        writer.writeTask(new Task("Task 2", "Task 2"));
+        writer.flush();
+        request = HttpRequest.newBuilder().uri(url).header("Content-Type", ContentTypes.BINARY.getValue())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, response.statusCode());
+        assertEquals("Task 2", manager.getTaskById(2).getName(), "Задача не создана!");
+
+        // эпик в теле запроса задачи и оборванное тело - ошибка 406
+        body.reset();
+        writer.writeTask(new Epic("Epic 1", "Epic 1"));
+        writer.flush();
+        request = HttpRequest.newBuilder().uri(url).header("Content-Type", ContentTypes.BINARY.getValue())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Эпик не должен создаваться как задача!");
+        request = HttpRequest.newBuilder().uri(url).header("Content-Type", ContentTypes.BINARY.getValue())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(new byte[]{1, 0})).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode(), "Оборванное тело должно давать ошибку 406!");
+    }
+}
@@ -1,5 +1,6 @@
 package server;
 
+import model.Epic;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -141,4 +143,28 @@ public class URIRequestTest {
         response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(404, response.statusCode());
     }
+
+    @Test
+    public void routeWithIdAndTrailingSlash() throws IOException, InterruptedException {
+        Epic epic = new Epic("Epic 1", "Epic 1");
+        manager.addEpic(epic);
+        // завершающий / не учитывается
+        url = URI.create("http://localhost:8080/epics/" + epic.getId() + "/subtasks/");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        url = URI.create("http://localhost:8080/tasks/");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        // ID в пути - только число не больше Integer.MAX_VALUE, иначе маршрут не найден
+        for (String path : List.of("/epics/abc", "/epics/-1", "/epics/2147483648", "/epics//subtasks",
+                "/epics/" + epic.getId() + "/tasks", "/epics/" + epic.getId() + "/subtasks/1")) {
+            url = URI.create("http://localhost:8080" + path);
+            request = HttpRequest.newBuilder().uri(url).GET().build();
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(404, response.statusCode(), "Неверный код ответа для " + path);
+        }
+    }
 }
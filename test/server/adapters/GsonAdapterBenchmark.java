@@ -0,0 +1,88 @@
+package server.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Замер скорости сериализации и разбора списка задач, эпиков и подзадач в JSON:
+ * поля классов через рефлексию Gson и адаптеры задач без рефлексии.
+ * Запуск: java server.adapters.GsonAdapterBenchmark [количество задач]
+ */
+public class GsonAdapterBenchmark {
+    private static final int WARMUP_ROUNDS = 5; // прогревочные прогоны для JIT
+    private static final int MEASURE_ROUNDS = 10; // прогоны с замером
+    private static final Type TASK_LIST = new TypeToken<List<Task>>() {
+    }.getType();
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<Task> tasks = createTasks(count);
+
+        run("рефлексия", new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter()).create(), tasks);
+        run("адаптеры", new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(Task.class, new TaskAdapter())
+                .registerTypeAdapter(Epic.class, new EpicAdapter())
+                .registerTypeAdapter(Subtask.class, new SubtaskAdapter()).create(), tasks);
+    }
+
+    // каждая десятая задача - эпик с подзадачами, следующие за ним - его подзадачи
+    private static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Epic epic = null;
+        for (int i = 1; i <= count; i++) {
+            LocalDateTime taskStart = startTime.plusMinutes(10L * i);
+            if (i % 10 == 1) {
+                epic = new Epic(i, "Переезд " + i, "Переезд на новую квартиру", Status.IN_PROGRESS, taskStart,
+                        Duration.ofMinutes(45), taskStart.plusMinutes(45));
+                tasks.add(epic);
+            } else if (i % 10 < 5) {
+                epic.addSubtaskId(i);
+                tasks.add(new Subtask(i, "Кот " + i, "Поймать кота и упаковать", Status.NEW, epic.getId(),
+                        taskStart, Duration.ofMinutes(5)));
+            } else {
+                tasks.add(new Task(i, "Почистить ковер " + i, "Отвезти в химчистку Ковер-33", Status.DONE,
+                        taskStart, Duration.ofMinutes(5)));
+            }
+        }
+        return tasks;
+    }
+
+    private static void run(String title, Gson gson, List<Task> tasks) {
+        String json = gson.toJson(tasks);
+        long writeTime = Long.MAX_VALUE;
+        long readTime = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURE_ROUNDS; round++) {
+            long start = System.nanoTime();
+            int length = gson.toJson(tasks).length();
+            long written = System.nanoTime();
+            List<Task> loaded = gson.fromJson(json, TASK_LIST);
+            long read = System.nanoTime();
+            if (length != json.length() || loaded.size() != tasks.size()) {
+                throw new IllegalStateException("Задачи сериализованы или разобраны не полностью!");
+            }
+            if (round >= WARMUP_ROUNDS) {
+                writeTime = Math.min(writeTime, written - start);
+                readTime = Math.min(readTime, read - written);
+            }
+        }
+        System.out.printf("%s: запись %d нс/задача (%.0f тыс. задач/с), разбор %d нс/задача (%.0f тыс. задач/с)%n",
+                title, writeTime / tasks.size(), tasks.size() * 1e6 / writeTime,
+                readTime / tasks.size(), tasks.size() * 1e6 / readTime);
+    }
+}
@@ -0,0 +1,96 @@
+package server.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskAdaptersTest {
+    // сериализация полей классов через рефлексию - с ней сравнивается формат адаптеров задач
+    private final Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationAdapter()).create();
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(Task.class, new TaskAdapter())
+            .registerTypeAdapter(Epic.class, new EpicAdapter())
+            .registerTypeAdapter(Subtask.class, new SubtaskAdapter()).create();
+
+    @Test
+    void writeSameJsonAsReflection() {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 9, 5);
+        Task task = new Task(1, "Задача", "Описание \"в кавычках\"", Status.DONE, start, Duration.ofMinutes(15));
+        Task emptyTask = new Task(2, "Задача без времени", null, null, null, null);
+        Epic epic = new Epic(3, "Эпик", "Эпик", Status.IN_PROGRESS, start, Duration.ofMinutes(30),
+                start.plusMinutes(30));
+        epic.addSubtaskId(4);
+        epic.addSubtaskId(5);
+        Subtask subtask = new Subtask(4, "Подзадача", "Подзадача", Status.NEW, 3, start, Duration.ofMinutes(30));
+
+        for (Task value : List.of(task, emptyTask, epic, subtask)) {
+            String json = gson.toJson(value);
+            assertEquals(JsonParser.parseString(reflectiveGson.toJson(value)), JsonParser.parseString(json),
+                    "JSON отличается от сериализации через рефлексию: " + json);
+        }
+        // в списке задач каждая задача пишется адаптером своего класса
+        assertEquals(JsonParser.parseString(reflectiveGson.toJson(List.of(task, epic, subtask))),
+                JsonParser.parseString(gson.toJson(List.of(task, epic, subtask))), "JSON списка отличается!");
+    }
+
+    @Test
+    void readTasks() {
+        String json = "{\"subTasksId\":[4,null],\"unknown\":{\"a\":[1]},\"id\":3,\"name\":\"Эпик\",\"status\":\"DONE\","
+                + "\"startTime\":\"01.05.2024 09:05\",\"duration\":30,\"endTime\":\"01.05.2024 09:35\","
+                + "\"description\":null}";
+        Epic epic = gson.fromJson(json, Epic.class);
+        Epic reflectiveEpic = reflectiveGson.fromJson(json.replace("4,null", "4"), Epic.class);
+        assertEquals(reflectiveEpic, epic, "Эпик прочитан неверно!");
+        assertEquals(reflectiveEpic.getName(), epic.getName(), "Неверное имя!");
+        assertNull(epic.getDescription(), "Пустое поле прочитано неверно!");
+        assertEquals(Status.DONE, epic.getStatus(), "Неверный статус!");
+        assertEquals(reflectiveEpic.getStartTime(), epic.getStartTime(), "Неверное время начала!");
+        assertEquals(reflectiveEpic.getDuration(), epic.getDuration(), "Неверная продолжительность!");
+        assertEquals(reflectiveEpic.getEndTime(), epic.getEndTime(), "Неверное время окончания!");
+        assertEquals(reflectiveEpic.getSubtasksId(), epic.getSubtasksId(), "Неверные подзадачи!");
+
+        Subtask subtask = gson.fromJson("{\"id\":\"4\",\"epicId\":3,\"status\":\"UNKNOWN\"}", Subtask.class);
+        assertEquals(4, subtask.getId(), "Неверный ID!");
+        assertEquals(3, subtask.getEpicId(), "Неверный ID эпика!");
+        assertNull(subtask.getStatus(), "Неизвестный статус должен читаться как null!");
+
+        List<Task> tasks = gson.fromJson("[{\"id\":1,\"duration\":null},null]", new TypeToken<List<Task>>() {
+        }.getType());
+        assertEquals(1, tasks.get(0).getId(), "Неверный ID!");
+        assertNull(tasks.get(0).getDuration(), "Пустая продолжительность прочитана неверно!");
+        assertNull(tasks.get(1), "null в списке прочитан неверно!");
+
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson("{\"id\":1.5}", Task.class));
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson("{\"startTime\":\"32.01.2024 10:00\"}",
+                Task.class));
+    }
+
+    @Test
+    void formatAndParseDateTime() {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 2, 9, 7, 3);
+        assertEquals("09.02.2024 07:03", LocalDateTimeAdapter.format(dateTime), "Неверный формат даты!");
+        assertEquals(dateTime, LocalDateTimeAdapter.parse("09.02.2024 07:03"), "Неверный разбор даты!");
+        // неверные даты разбираются так же, как форматтером
+        assertEquals(LocalDateTime.of(2024, 2, 29, 10, 0), LocalDateTimeAdapter.parse("31.02.2024 10:00"),
+                "Неверный разбор даты!");
+        assertThrows(DateTimeParseException.class, () -> LocalDateTimeAdapter.parse("09.02.0000 07:03"));
+    }
+}
@@ -0,0 +1,90 @@
+package service;
+
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentHistoryManagerTest {
+    static ConcurrentHistoryManager historyManager;
+    static List<Task> tasks;
+
+    @BeforeEach
+    void beforeEach() {
+        historyManager = new ConcurrentHistoryManager();
+        tasks = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            Task task = new Task("Задача " + i, "Описание " + i);
+            task.setId(i);
+            tasks.add(task);
+        }
+    }
+
+    // порядок просмотров из одного потока сохраняется, дубликатов нет
+    @Test
+    void getHistoryInViewOrder() {
+        for (Task task : tasks) {
+            historyManager.add(task);
+        }
+        historyManager.add(tasks.getFirst());
+        List<Task> expected = new ArrayList<>(tasks.subList(1, tasks.size()));
+        expected.add(tasks.getFirst());
+        assertArrayEquals(expected.toArray(), historyManager.getHistory().toArray(),
+                "Изменился порядок в истории просмотров");
+        assertArrayEquals(expected.subList(198, 200).toArray(), historyManager.getHistory(2).toArray(),
+                "Не верный список последних просмотров");
+    }
+
+    // просмотр, который еще в буфере, не должен вернуть удаленную задачу в историю
+    @Test
+    void removeTaskWithPendingView() {
+        historyManager.add(tasks.get(0));
+        historyManager.add(tasks.get(1));
+        historyManager.remove(1);
+        assertArrayEquals(new Task[]{tasks.get(1)}, historyManager.getHistory().toArray(),
+                "Удаленная задача осталась в истории");
+    }
+
+    // ограничение размера истории
+    @Test
+    void shouldEvictOldestTaskWhenCapacityExceeded() {
+        historyManager = new ConcurrentHistoryManager(10);
+        for (Task task : tasks) {
+            historyManager.add(task);
+        }
+        assertArrayEquals(tasks.subList(190, 200).toArray(), historyManager.getHistory().toArray(),
+                "История не ограничена по размеру");
+    }
+
+    // одновременные просмотры из нескольких потоков не теряются
+    @Test
+    void addFromManyThreads() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int shift = t;
+            threads.add(new Thread(() -> {
+                for (int round = 0; round < 100; round++) {
+                    for (int i = shift; i < tasks.size(); i += 8) {
+                        historyManager.add(tasks.get(i));
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        List<Task> history = historyManager.getHistory();
+        Set<Task> uniqueTasks = new HashSet<>(history);
+        assertEquals(tasks.size(), history.size(), "Потерялись просмотры задач");
+        assertEquals(tasks.size(), uniqueTasks.size(), "В истории есть дубликаты");
+        assertTrue(uniqueTasks.containsAll(tasks), "Потерялись просмотры задач");
+    }
+}
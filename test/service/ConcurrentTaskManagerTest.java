@@ -0,0 +1,76 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    ConcurrentTaskManagerTest() {
+        taskManager = new ConcurrentTaskManager(new InMemoryTaskManager(new ConcurrentHistoryManager()));
+    }
+
+    // одновременное добавление и чтение задач из нескольких потоков: ID не повторяются, задачи не теряются
+    @Test
+    void addAndGetTasksConcurrently() throws Exception {
+        int threads = 8;
+        int tasksPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < tasksPerThread; j++) {
+                        Task newTask = new Task("Задача " + j, "Описание " + j);
+                        taskManager.addTask(newTask);
+                        taskManager.getTaskById(newTask.getId());
+                        taskManager.getTasks();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Task> tasks = taskManager.getTasks();
+        assertEquals(1 + threads * tasksPerThread, tasks.size(), "Потеряны задачи при одновременном добавлении");
+        Set<Integer> ids = new HashSet<>();
+        tasks.forEach(t -> ids.add(t.getId()));
+        assertEquals(tasks.size(), ids.size(), "Повторяются ID задач");
+        assertEquals(threads * tasksPerThread, taskManager.getHistory().size(),
+                "Потеряны просмотры при одновременном чтении");
+    }
+
+    // чтение возвращает копии: изменения менеджера после снятия блокировки не меняют полученный эпик
+    @Test
+    void readReturnsCopiesOfTasks() {
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask(epic, "Подзадача", "Описание подзадачи");
+        taskManager.addSubtask(subtask);
+        Epic received = taskManager.getEpicById(epic.getId());
+        assertNotSame(received, taskManager.getEpicById(epic.getId()), "Возвращен сам эпик менеджера");
+        assertEquals(Set.of(subtask.getId()), received.getSubtasksId(), "Не скопированы подзадачи эпика");
+
+        taskManager.updateSubtask(new Subtask(subtask.getId(), "Подзадача", "Описание подзадачи", Status.DONE,
+                epic.getId(), null, null));
+        assertEquals(Status.NEW, received.getStatus(), "Полученный эпик изменился после обновления подзадачи");
+        assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).getStatus(), "Статус эпика не обновлен");
+    }
+}
@@ -1,30 +1,44 @@
 package service;
 
 import exception.ManagerSaveException;
+import exception.NotFoundException;
 import model.Epic;
+import model.Status;
 import model.Subtask;
 import model.Task;
+import model.TaskType;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import utils.CsvField;
 
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    Path tmpDir; // все файлы теста (и журналы истории рядом с ними) - во временном каталоге
     File tmpFile;
     BufferedWriter file;
     ManagerSaveException managerSaveException;
 
     FileBackedTaskManagerTest() throws IOException {
-        taskManager = new FileBackedTaskManager("tasks.csv");
-        tmpFile = File.createTempFile("tasks", null);
+        tmpDir = Files.createTempDirectory("tasks");
+        taskManager = new FileBackedTaskManager(tmpDir.resolve("tasks.csv").toString());
+        tmpFile = File.createTempFile("tasks", null, tmpDir.toFile());
         file = new BufferedWriter(new FileWriter(tmpFile));
     }
 
@@ -97,7 +111,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Files.delete(tmpFile.toPath());
 
         // пропущено поле в заголовке файла CSV
-        tmpFile = File.createTempFile("tasks", null);
+        tmpFile = File.createTempFile("tasks", null, tmpDir.toFile());
         file = new BufferedWriter(new FileWriter(tmpFile));
         file.write("type,id,,description,status,epic,starttime,duration,endtime\n");
         file.write("TASK,1,Почистить ковер,Отвезти в химчистку Ковер-33,NEW,\n");
@@ -109,7 +123,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Files.delete(tmpFile.toPath());
 
         // не все поля в заголовке файла CSV
-        tmpFile = File.createTempFile("tasks", null);
+        tmpFile = File.createTempFile("tasks", null, tmpDir.toFile());
         file = new BufferedWriter(new FileWriter(tmpFile));
         file.write("type,id,,description,status,epic,starttime,duration,endtime\n");
         file.write("TASK,1,Почистить ковер,Отвезти в химчистку Ковер-33,NEW,\n");
@@ -122,7 +136,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
 
         // дублируются поля в заголовке
         // не должно быть исключения
-        tmpFile = File.createTempFile("tasks", null);
+        tmpFile = File.createTempFile("tasks", null, tmpDir.toFile());
         file = new BufferedWriter(new FileWriter(tmpFile));
         file.write("type,type,id,name,description,status,epic,starttime,duration,endtime\n");
         file.close();
@@ -131,7 +145,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Files.delete(tmpFile.toPath());
 
         // не корректно указываем ID задачи
-        tmpFile = File.createTempFile("tasks", null);
+        tmpFile = File.createTempFile("tasks", null, tmpDir.toFile());
         file = new BufferedWriter(new FileWriter(tmpFile));
         file.write("type,id,description,status,epic,starttime,duration,endtime\n");
         file.write("TASK,один,Почистить ковер,Отвезти в химчистку Ковер-33,NEW,\n");
@@ -143,7 +157,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Files.delete(tmpFile.toPath());
 
         // указываем ID задачи меньше нуля
-        tmpFile = File.createTempFile("tasks", null);
+        tmpFile = File.createTempFile("tasks", null, tmpDir.toFile());
         file = new BufferedWriter(new FileWriter(tmpFile));
         file.write("type,id,description,status,epic,starttime,duration,endtime\n");
         file.write("TASK,-100,Почистить ковер,Отвезти в химчистку Ковер-33,NEW,\n");
@@ -155,7 +169,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Files.delete(tmpFile.toPath());
 
         // указываем ID задачи = 0
-        tmpFile = File.createTempFile("tasks", null);
+        tmpFile = File.createTempFile("tasks", null, tmpDir.toFile());
         file = new BufferedWriter(new FileWriter(tmpFile));
         file.write("type,id,description,status,epic,starttime,duration,endtime\n");
         file.write("TASK,0,Почистить ковер,Отвезти в химчистку Ковер-33,NEW,\n");
@@ -168,7 +182,11 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
     @AfterEach
     void afterEach() throws IOException {
         file.close();
-        Files.delete(tmpFile.toPath());
+        try (Stream<Path> files = Files.walk(tmpDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
     }
 
     // проверим, что из файла подгружаются задачи из сортированного списка
@@ -209,4 +227,297 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertEquals(taskManager1.getPrioritizedTasks(), taskManager2.getPrioritizedTasks(),
                 "Задачи в сортированном списке не равны!");
     }
-}
\ No newline at end of file
+
+    // одновременная загрузка файлов с разным порядком полей не должна смешивать схемы файлов
+    @Test
+    void loadFilesWithDifferentHeadersConcurrently() throws IOException, InterruptedException {
+        file.write("type,id,name,description,status,epic,starttime,duration,endtime\n");
+        file.write("TASK,1,Почистить ковер,Отвезти в химчистку Ковер-33,NEW,,,,\n");
+        file.close();
+        File reorderedFile = File.createTempFile("tasks", null, tmpDir.toFile());
+        try (BufferedWriter reorderedWriter = new BufferedWriter(new FileWriter(reorderedFile))) {
+            reorderedWriter.write("endtime,duration,starttime,epic,status,description,name,id,type\n");
+            reorderedWriter.write(",,,,DONE,Найти рецепт борща,Сварить борщ,2,TASK\n");
+        }
+
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int j = 0; j < 50; j++) {
+                        assertEquals("Почистить ковер", FileBackedTaskManager.loadFromFile(tmpFile.toString())
+                                .getTaskById(1).getName());
+                        assertEquals(Status.DONE, FileBackedTaskManager.loadFromFile(reorderedFile.toString())
+                                .getTaskById(2).getStatus());
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        Files.delete(reorderedFile.toPath());
+
+        assertTrue(errors.isEmpty(), "Схемы файлов смешались при одновременной загрузке: " + errors);
+    }
+
+    // проверим формат строк, которые записываются в файл при сохранении
+    @Test
+    void checkCsvLinesWhenSave() throws IOException {
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        Task task = new Task("Почистить ковер", "Отвезти в химчистку Ковер-33");
+        taskManager1.addTask(task); // id будет = 1
+        Epic epic = new Epic("Переезд", "Переезд на новую квартиру");
+        taskManager1.addEpic(epic); // id будет = 2
+        Subtask subtask = new Subtask(epic, "Грузчики", "Найти грузчиков");
+        subtask.setStartTime(LocalDateTime.of(2024, 8, 5, 10, 0));
+        subtask.setDuration(Duration.ofMinutes(47));
+        taskManager1.addSubtask(subtask); // id будет = 3
+
+        assertEquals(List.of("type,id,name,description,status,epic,starttime,duration,endtime",
+                        "TASK,1,Почистить ковер,Отвезти в химчистку Ковер-33,NEW,,,,",
+                        "EPIC,2,Переезд,Переезд на новую квартиру,NEW,,1722852000000,47,1722854820000",
+                        "SUBTASK,3,Грузчики,Найти грузчиков,NEW,2,1722852000000,47,"),
+                Files.readAllLines(tmpFile.toPath()), "Не верный формат строк в файле!");
+    }
+
+    // загрузка из файла только ID, статусов и времени задач, без наименований и описаний
+    @Test
+    void loadProjectionFromFile() {
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        Task task = new Task("Почистить ковер", "Отвезти в химчистку Ковер-33", Status.DONE);
+        taskManager1.addTask(task); // id будет = 1
+        Epic epic = new Epic("Переезд", "Переезд на новую квартиру");
+        taskManager1.addEpic(epic); // id будет = 2
+        Subtask subtask = new Subtask(epic, "Грузчики", "Найти грузчиков");
+        subtask.setStartTime(LocalDateTime.of(2024, 8, 5, 10, 0));
+        subtask.setDuration(Duration.ofMinutes(47));
+        taskManager1.addSubtask(subtask); // id будет = 3
+
+        List<Task> projection = FileBackedTaskManager.loadProjectionFromFile(tmpFile.toString(),
+                EnumSet.of(CsvField.STATUS, CsvField.START_TIME, CsvField.DURATION));
+
+        assertEquals(List.of(task, epic, subtask), projection, "Загружены не все задачи!");
+        assertEquals(Status.DONE, projection.get(0).getStatus(), "Не загрузился статус задачи!");
+        assertEquals(LocalDateTime.of(2024, 8, 5, 10, 0), projection.get(2).getStartTime(),
+                "Не загрузилось время начала подзадачи!");
+        assertEquals(Duration.ofMinutes(47), projection.get(2).getDuration(),
+                "Не загрузилась продолжительность подзадачи!");
+        assertEquals(0, ((Subtask) projection.get(2)).getEpicId(), "ID эпика не запрашивался!");
+        for (Task projectedTask : projection) {
+            assertNull(projectedTask.getName(), "Наименование задачи не запрашивалось!");
+            assertNull(projectedTask.getDescription(), "Описание задачи не запрашивалось!");
+        }
+    }
+
+    // запятые, кавычки и переводы строк в наименовании и описании не должны портить файл
+    @Test
+    void saveAndLoadFieldsWithSpecialCharacters() throws IOException {
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        Task task = new Task("Купить молоко, хлеб", "Магазин \"У дома\"\nвторой этаж");
+        taskManager1.addTask(task); // id будет = 1
+        Epic epic = new Epic("\"Переезд\"", ",");
+        taskManager1.addEpic(epic); // id будет = 2
+        Subtask subtask = new Subtask(epic, "\"\"", "Найти грузчиков,");
+        taskManager1.addSubtask(subtask); // id будет = 3
+
+        assertEquals("TASK,1,\"Купить молоко, хлеб\",\"Магазин \"\"У дома\"\"",
+                Files.readAllLines(tmpFile.toPath()).get(1),
+                "Поле с запятой и кавычками должно быть в кавычках!");
+
+        FileBackedTaskManager taskManager2 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        for (Task savedTask : List.of(task, epic, subtask)) {
+            Task loadedTask = switch (savedTask.getType()) {
+                case TASK -> taskManager2.getTaskById(savedTask.getId());
+                case EPIC -> taskManager2.getEpicById(savedTask.getId());
+                case SUBTASK -> taskManager2.getSubtaskById(savedTask.getId());
+            };
+            assertEquals(savedTask.getName(), loadedTask.getName(), "Наименование задачи загрузилось с ошибкой!");
+            assertEquals(savedTask.getDescription(), loadedTask.getDescription(),
+                    "Описание задачи загрузилось с ошибкой!");
+        }
+    }
+
+    // перевод строки CRLF внутри поля в кавычках сохраняется, а CRLF между записями - разделитель записей
+    @Test
+    void keepCrLfInsideQuotedField() throws IOException {
+        file.write("type,id,name,description,status,epic,starttime,duration,endtime\r\n");
+        file.write("TASK,1,Почистить ковер,\"Первая строка\r\nвторая\rтретья\",NEW,,,,\r\n");
+        file.write("TASK,2,Купить молоко,Без переносов,NEW,,,,\r");
+        file.write("TASK,3,Купить хлеб,\"\"\"Бородинский\"\"\r\n\",NEW,,,,");
+        file.close();
+
+        FileBackedTaskManager taskManager1 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        assertEquals("Первая строка\r\nвторая\rтретья", taskManager1.getTaskById(1).getDescription(),
+                "Перевод строки в поле загрузился с ошибкой!");
+        assertEquals("Без переносов", taskManager1.getTaskById(2).getDescription(),
+                "Запись после CR загрузилась с ошибкой!");
+        assertEquals("\"Бородинский\"\r\n", taskManager1.getTaskById(3).getDescription(),
+                "Последняя запись загрузилась с ошибкой!");
+
+        // длинное описание читается несколькими блоками
+        taskManager1.addTask(new Task("Задача", "Строка 1\r\n" + "х".repeat(1000) + "\r\nСтрока 3")); // id = 4
+        FileBackedTaskManager taskManager2 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        for (int id = 1; id <= 4; id++) {
+            assertEquals(taskManager1.getTaskById(id).getDescription(), taskManager2.getTaskById(id).getDescription(),
+                    "Описание задачи после сохранения загрузилось с ошибкой!");
+        }
+    }
+
+    // поле с незакрытой кавычкой - ошибка формата файла
+    @Test
+    void shouldBeExceptionWhenQuoteIsNotClosed() throws IOException {
+        file.write("type,id,name,description,status,epic,starttime,duration,endtime\n");
+        file.write("TASK,1,\"Почистить ковер,Отвезти в химчистку Ковер-33,NEW,,,,\n");
+        file.close();
+        managerSaveException = assertThrows(ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(tmpFile.toString()));
+        assertNotNull(managerSaveException.getMessage(), "Должно быть исключение: Не закрыта кавычка!");
+    }
+
+    // история просмотров восстанавливается из журнала при загрузке менеджера из файла
+    @Test
+    void restoreHistoryWhenLoadFromFile() {
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        taskManager1.addTask(new Task("Почистить ковер", "Отвезти в химчистку Ковер-33")); // id будет = 1
+        Epic epic = new Epic("Переезд", "Переезд на новую квартиру");
+        taskManager1.addEpic(epic); // id будет = 2
+        taskManager1.addSubtask(new Subtask(epic, "Грузчики", "Найти грузчиков")); // id будет = 3
+        taskManager1.addTask(new Task("Сварить борщ", "Найти рецепт борща")); // id будет = 4
+        taskManager1.getSubtaskById(3);
+        taskManager1.getTaskById(1);
+        taskManager1.getEpicById(2);
+        taskManager1.getTaskById(4);
+        taskManager1.getSubtaskById(3);
+        taskManager1.deleteTaskById(1); // удаленная задача не должна вернуться в историю
+
+        FileBackedTaskManager taskManager2 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        assertEquals(taskManager1.getHistory(), taskManager2.getHistory(), "История просмотров не восстановилась!");
+
+        // просмотры в загруженном менеджере продолжают записываться в журнал, остаток буфера - при закрытии
+        taskManager2.getEpicById(2);
+        taskManager2.close();
+        FileBackedTaskManager taskManager3 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        assertEquals(taskManager2.getHistory(), taskManager3.getHistory(), "История просмотров не восстановилась!");
+        assertEquals(2, taskManager3.getHistory().getLast().getId(), "Последний просмотр не сохранился!");
+    }
+
+    // без журнала история после загрузки пустая, поврежденные строки журнала пропускаются
+    @Test
+    void loadFromFileWithoutOrBrokenHistoryLog() throws IOException {
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        taskManager1.addTask(new Task("Почистить ковер", "Отвезти в химчистку Ковер-33")); // id будет = 1
+        assertTrue(FileBackedTaskManager.loadFromFile(tmpFile.toString()).getHistory().isEmpty(),
+                "История просмотров должна быть пустой!");
+
+        Files.writeString(Path.of(tmpFile + ".history"), "1\n77\n1x");
+        assertEquals(List.of(taskManager1.getTaskById(1)),
+                FileBackedTaskManager.loadFromFile(tmpFile.toString()).getHistory(),
+                "Не восстановилась история из поврежденного журнала!");
+    }
+
+    // журнал сжимается другим менеджером (файл заменяется), просмотры первого менеджера не теряются
+    @Test
+    void keepViewsAfterHistoryLogCompactedByOtherManager() throws IOException {
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        taskManager1.addTask(new Task("Почистить ковер", "Отвезти в химчистку Ковер-33")); // id будет = 1
+        taskManager1.addTask(new Task("Сварить борщ", "Найти рецепт борща")); // id будет = 2
+        taskManager1.getTaskById(1);
+        assertEquals("", Files.readString(Path.of(tmpFile + ".history")), "Просмотр должен остаться в буфере!");
+        taskManager1.close();
+        // другой менеджер сжал журнал: файл журнала заменен новым
+        Path compactedFile = Files.createTempFile(tmpDir, "history", ".tmp");
+        Files.writeString(compactedFile, "1\n");
+        Files.move(compactedFile, Path.of(tmpFile + ".history"), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        taskManager1.getTaskById(2);
+        taskManager1.close();
+
+        FileBackedTaskManager taskManager2 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        assertEquals(List.of(taskManager1.getTaskById(1), taskManager1.getTaskById(2)), taskManager2.getHistory(),
+                "Просмотры после сжатия журнала потеряны!");
+    }
+
+    // после перезапуска (загрузки из файла) версии начинаются заново: токен прежнего менеджера требует полной загрузки,
+    // даже когда новый менеджер уже сделал больше изменений, чем версия в токене
+    @Test
+    void getChangesSinceSyncTokenBeforeRestart() {
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        taskManager1.addTask(new Task("Почистить ковер", "Отвезти в химчистку Ковер-33")); // id будет = 1
+        String syncToken = taskManager1.getSyncToken();
+        taskManager1.addTask(new Task("Сварить борщ", "Найти рецепт борща")); // id будет = 2
+
+        FileBackedTaskManager taskManager2 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        taskManager2.addTask(new Task("Задача 3", "Описание 3"));
+        taskManager2.addTask(new Task("Задача 4", "Описание 4"));
+        assertTrue(taskManager2.getVersion() > Long.parseLong(syncToken.substring(syncToken.lastIndexOf('-') + 1)),
+                "Версия нового менеджера должна обогнать версию токена!");
+        ChangeSet changeSet = taskManager2.getChangesSince(syncToken);
+        assertTrue(changeSet.isResync(), "Нет признака полной загрузки после перезапуска!");
+        assertTrue(changeSet.getTasks().isEmpty(), "Изменения заполнены при полной загрузке!");
+        assertFalse(taskManager2.getChangesSince(changeSet.getSyncToken()).isResync(),
+                "Лишний признак полной загрузки для нового токена!");
+    }
+
+    // новый менеджер очищает журнал прежних задач файла: их просмотры не переносятся на новые задачи с теми же ID
+    @Test
+    void newManagerClearsLeftoverHistoryLog() throws IOException {
+        Files.writeString(Path.of(tmpFile + ".history"), "1\n2\n1\n");
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        assertEquals("1\n2\n1\n", Files.readString(Path.of(tmpFile + ".history")),
+                "Журнал очищен до сохранения задач!");
+        taskManager1.addTask(new Task("Почистить ковер", "Отвезти в химчистку Ковер-33")); // id будет = 1
+        taskManager1.addTask(new Task("Сварить борщ", "Найти рецепт борща")); // id будет = 2
+        assertTrue(taskManager1.getHistory().isEmpty(), "История нового менеджера должна быть пустой!");
+
+        FileBackedTaskManager taskManager2 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        assertEquals(taskManager1.getTasks(), taskManager2.getTasks(), "Задачи не совпадают!");
+        assertTrue(taskManager2.getHistory().isEmpty(), "Просмотры прежних задач попали в историю!");
+    }
+
+    // пакет сохраняется в файл целиком, пакет с ошибкой файл не меняет
+    @Test
+    void saveAndLoadAfterBatch() throws IOException {
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        taskManager1.addTask(new Task("Почистить ковер", "Отвезти в химчистку Ковер-33")); // id будет = 1
+        taskManager1.applyBatch(List.of(
+                BatchOperation.create(new Epic("Переезд", "Переезд на новую квартиру")), // id будет = 2
+                BatchOperation.create(new Subtask(0, "Грузчики", "Найти грузчиков"), 0), // id будет = 3
+                BatchOperation.delete(TaskType.TASK, 1)));
+        String savedFile = Files.readString(tmpFile.toPath());
+
+        FileBackedTaskManager taskManager2 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        assertTrue(taskManager2.getTasks().isEmpty(), "Задача не удалена пакетом!");
+        assertEquals(taskManager1.getEpics(), taskManager2.getEpics(), "Эпики не совпадают!");
+        assertEquals(taskManager1.getSubtasks(), taskManager2.getSubtasks(), "Подзадачи не совпадают!");
+
+        assertThrows(NotFoundException.class, () -> taskManager1.applyBatch(List.of(
+                BatchOperation.delete(TaskType.EPIC, 2),
+                BatchOperation.delete(TaskType.EPIC, 2))));
+        assertEquals(savedFile, Files.readString(tmpFile.toPath()), "Файл изменился после ошибки пакета!");
+    }
+
+    // загрузка не переписывает журнал, пока он не разросся
+    @Test
+    void loadFromFileDoesNotRewriteHistoryLog() throws IOException {
+        FileBackedTaskManager taskManager1 = new FileBackedTaskManager(tmpFile.toString());
+        taskManager1.addTask(new Task("Почистить ковер", "Отвезти в химчистку Ковер-33")); // id будет = 1
+        taskManager1.close();
+        Path historyFile = Path.of(tmpFile + ".history");
+        Files.writeString(historyFile, "1\n1\n-1\n1\n");
+
+        FileBackedTaskManager taskManager2 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        FileBackedTaskManager taskManager3 = FileBackedTaskManager.loadFromFile(tmpFile.toString());
+        assertEquals(List.of(taskManager1.getTasks().get(0)), taskManager2.getHistory(), "История не восстановлена!");
+        assertEquals(taskManager2.getHistory(), taskManager3.getHistory(), "Истории загрузок не совпадают!");
+        assertEquals("1\n1\n-1\n1\n", Files.readString(historyFile), "Журнал изменен при загрузке!");
+    }
+
+    @Test
+    void shouldBeExceptionWhenFileNameIsBlank() {
+        assertThrows(IllegalArgumentException.class, () -> new FileBackedTaskManager(" "));
+        assertThrows(IllegalArgumentException.class, () -> FileBackedTaskManager.loadFromFile(""));
+    }
+}
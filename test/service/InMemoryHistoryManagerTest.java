@@ -130,4 +130,29 @@ class InMemoryHistoryManagerTest {
         assertArrayEquals(savedHistoryViews.toArray(), historyManager.getHistory().toArray(),
                 "Изменился порядок в истории после удалении последней задачи");
     }
-}
\ No newline at end of file
+
+    // при ограниченном размере история хранит только последние просмотры
+    @Test
+    void shouldEvictOldestTaskWhenCapacityExceeded() {
+        historyManager = new InMemoryHistoryManager(2);
+        historyManager.add(task);
+        historyManager.add(epic);
+        historyManager.add(subtask);
+        assertArrayEquals(new Task[]{epic, subtask}, historyManager.getHistory().toArray(),
+                "Из переполненной истории не удалился самый давний просмотр");
+
+        // повторный просмотр переносит задачу в конец и не вытесняет другие задачи
+        historyManager.add(epic);
+        assertArrayEquals(new Task[]{subtask, epic}, historyManager.getHistory().toArray(),
+                "Повторный просмотр изменил размер истории");
+    }
+
+    // получение только последних просмотров
+    @Test
+    void getHistoryWithLimit() {
+        assertArrayEquals(new Task[]{epic, subtask}, historyManager.getHistory(2).toArray(),
+                "Не верный список последних просмотров");
+        assertEquals(3, historyManager.getHistory(10).size(), "Лимит больше размера истории");
+        assertEquals(0, historyManager.getHistory(0).size(), "Лимит равен нулю");
+    }
+}
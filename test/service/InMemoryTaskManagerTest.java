@@ -1,8 +1,35 @@
 package service;
 
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
 
     InMemoryTaskManagerTest() {
         taskManager = new InMemoryTaskManager();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getChangesSinceTruncatedChangeLog() {
+        InMemoryTaskManager manager = new InMemoryTaskManager(Managers.getDefaultHistory(), 2);
+        manager.addTask(new Task("Задача 1", "Описание 1"));
+        String syncToken = manager.getSyncToken();
+        manager.addTask(new Task("Задача 2", "Описание 2"));
+        manager.addTask(new Task("Задача 3", "Описание 3"));
+        assertFalse(manager.getChangesSince(syncToken).isResync(), "Изменения еще есть в журнале!");
+        assertEquals(2, manager.getChangesSince(syncToken).getTasks().size(), "Неверное количество изменений!");
+
+        manager.addTask(new Task("Задача 4", "Описание 4"));
+        ChangeSet changeSet = manager.getChangesSince(syncToken);
+        assertTrue(changeSet.isResync(), "Нет признака полной загрузки после вытеснения изменений!");
+        assertTrue(changeSet.getTasks().isEmpty(), "Изменения заполнены при полной загрузке!");
+        assertEquals(manager.getVersion(), changeSet.getVersion(), "Неверная версия изменений!");
+        String futureToken = syncToken.substring(0, syncToken.lastIndexOf('-') + 1) + (manager.getVersion() + 1);
+        assertTrue(manager.getChangesSince(futureToken).isResync(),
+                "Нет признака полной загрузки для версии из будущего!");
+    }
+}
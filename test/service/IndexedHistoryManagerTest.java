@@ -0,0 +1,100 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndexedHistoryManagerTest {
+    static IndexedHistoryManager historyManager;
+    static Task task;
+    static Epic epic;
+    static Subtask subtask;
+    static List<Task> savedHistoryViews;
+
+    @BeforeEach
+    void beforeEach() {
+        historyManager = new IndexedHistoryManager();
+        task = new Task("Почистить ковер", "Отвезти в химчистку Ковер-33");
+        task.setId(1);
+        historyManager.add(task);
+        epic = new Epic("Переезд", "Переезд на новую квартиру");
+        epic.setId(2);
+        historyManager.add(epic);
+        subtask = new Subtask(epic, "Грузчики", "Найти грузчиков");
+        subtask.setId(3);
+        historyManager.add(subtask);
+        savedHistoryViews = new ArrayList<>(List.of(task, epic, subtask));
+    }
+
+    // повторный просмотр переносит задачу в конец истории
+    @Test
+    void addExistTaskId() {
+        historyManager.add(task);
+        assertArrayEquals(new Task[]{epic, subtask, task}, historyManager.getHistory().toArray(),
+                "Повторный просмотр не перенес задачу в конец истории");
+    }
+
+    // удаление из истории с начала, середины и конца
+    @Test
+    void deleteTasks() {
+        historyManager.remove(2);
+        savedHistoryViews.remove(epic);
+        assertArrayEquals(savedHistoryViews.toArray(), historyManager.getHistory().toArray(),
+                "Изменился порядок в истории после удалении задачи из середины");
+        historyManager.remove(1);
+        savedHistoryViews.remove(task);
+        assertArrayEquals(savedHistoryViews.toArray(), historyManager.getHistory().toArray(),
+                "Изменился порядок в истории после удалении первой задачи");
+        historyManager.remove(3);
+        historyManager.remove(1237812);
+        assertEquals(0, historyManager.getHistory().size(), "История не удалилась");
+    }
+
+    // ограничение размера истории и получение последних просмотров
+    @Test
+    void shouldEvictOldestTaskWhenCapacityExceeded() {
+        historyManager = new IndexedHistoryManager(2);
+        historyManager.add(task);
+        historyManager.add(epic);
+        historyManager.add(subtask);
+        assertArrayEquals(new Task[]{epic, subtask}, historyManager.getHistory().toArray(),
+                "Из переполненной истории не удалился самый давний просмотр");
+        assertArrayEquals(new Task[]{subtask}, historyManager.getHistory(1).toArray(),
+                "Не верный список последних просмотров");
+    }
+
+    // на случайной последовательности операций история совпадает с историей на связном списке
+    @Test
+    void shouldMatchLinkedHistoryOnRandomOperations() {
+        Random random = new Random(42);
+        for (int capacity : new int[]{InMemoryHistoryManager.UNLIMITED, 50}) {
+            historyManager = new IndexedHistoryManager(capacity);
+            InMemoryHistoryManager linkedHistory = new InMemoryHistoryManager(capacity);
+            for (int i = 0; i < 20_000; i++) {
+                int id = random.nextInt(300);
+                if (random.nextInt(4) == 0) {
+                    historyManager.remove(id);
+                    linkedHistory.remove(id);
+                } else {
+                    Task viewedTask = new Task("Задача " + id, "Описание " + id);
+                    viewedTask.setId(id);
+                    historyManager.add(viewedTask);
+                    linkedHistory.add(viewedTask);
+                }
+            }
+            assertArrayEquals(linkedHistory.getHistory().toArray(), historyManager.getHistory().toArray(),
+                    "История отличается от истории на связном списке");
+            assertArrayEquals(linkedHistory.getHistory(10).toArray(), historyManager.getHistory(10).toArray(),
+                    "Последние просмотры отличаются от истории на связном списке");
+        }
+    }
+}
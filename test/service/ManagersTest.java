@@ -10,5 +10,8 @@ class ManagersTest {
     void shouldBeNotNull() {
         assertNotNull(Managers.getDefault(), "Объект TaskManager не создан.");
         assertNotNull(Managers.getDefaultHistory(), "Объект InMemoryHistoryManager не создан.");
+        assertNotNull(Managers.getDefaultHistory(10), "Объект InMemoryHistoryManager не создан.");
+        assertNotNull(Managers.getConcurrentHistory(10), "Объект ConcurrentHistoryManager не создан.");
+        assertNotNull(Managers.getIndexedHistory(10), "Объект IndexedHistoryManager не создан.");
     }
 }
\ No newline at end of file
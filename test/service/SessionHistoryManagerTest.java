@@ -0,0 +1,193 @@
+package service;
+
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionHistoryManagerTest {
+    static AtomicLong clock;
+    static SessionHistoryManager historyManager;
+    static List<Task> tasks;
+
+    @BeforeEach
+    void beforeEach() {
+        clock = new AtomicLong();
+        historyManager = new SessionHistoryManager(3, 4, Duration.ofNanos(1000), clock::get);
+        tasks = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            Task task = new Task("Задача " + i, "Описание " + i);
+            task.setId(i);
+            tasks.add(task);
+        }
+    }
+
+    // у каждой сессии своя история, вне сессии - общая история
+    @Test
+    void historyIsSeparatedBySession() {
+        historyManager.add(tasks.get(0));
+        historyManager.enterSession("client-1");
+        historyManager.add(tasks.get(1));
+        historyManager.add(tasks.get(2));
+        historyManager.exitSession();
+        historyManager.enterSession("client-2");
+        historyManager.add(tasks.get(3));
+        assertEquals(List.of(tasks.get(3)), historyManager.getHistory(), "Не верная история второй сессии");
+        historyManager.exitSession();
+
+        historyManager.enterSession("client-1");
+        assertEquals(List.of(tasks.get(1), tasks.get(2)), historyManager.getHistory(),
+                "Не верная история первой сессии");
+        assertEquals(List.of(tasks.get(2)), historyManager.getHistory(1), "Не верные последние просмотры сессии");
+        historyManager.exitSession();
+        assertEquals(List.of(tasks.get(0)), historyManager.getHistory(), "Не верная общая история");
+    }
+
+    // история сессии ограничена по размеру
+    @Test
+    void shouldEvictOldestTaskWhenSessionCapacityExceeded() {
+        historyManager.enterSession("client-1");
+        for (Task task : tasks) {
+            historyManager.add(task);
+        }
+        assertEquals(tasks.subList(7, 10), historyManager.getHistory(), "Не верная история сессии");
+        historyManager.exitSession();
+    }
+
+    // удаление задачи убирает ее из истории всех сессий
+    @Test
+    void removeTaskFromAllSessions() {
+        historyManager.add(tasks.get(0));
+        for (String sessionId : List.of("client-1", "client-2")) {
+            historyManager.enterSession(sessionId);
+            historyManager.add(tasks.get(0));
+            historyManager.add(tasks.get(1));
+            historyManager.exitSession();
+        }
+        historyManager.remove(1);
+        assertTrue(historyManager.getHistory().isEmpty(), "Задача осталась в общей истории");
+        for (String sessionId : List.of("client-1", "client-2")) {
+            historyManager.enterSession(sessionId);
+            assertEquals(List.of(tasks.get(1)), historyManager.getHistory(), "Задача осталась в истории сессии");
+            historyManager.exitSession();
+        }
+    }
+
+    // задача, просмотренная снова после удаления (например, загруженная заново), остается в истории сессии
+    @Test
+    void keepTaskViewedAgainAfterRemove() {
+        historyManager.enterSession("client-1");
+        historyManager.add(tasks.get(0));
+        historyManager.add(tasks.get(1));
+        historyManager.remove(1);
+        historyManager.add(tasks.get(0));
+        assertEquals(List.of(tasks.get(1), tasks.get(0)), historyManager.getHistory(),
+                "Не верная история после повторного просмотра");
+        historyManager.remove(2);
+        assertEquals(List.of(tasks.get(0)), historyManager.getHistory(), "Задача осталась в истории сессии");
+        historyManager.exitSession();
+    }
+
+    // отметка удаления убирает только просмотры до удаления: задачу с тем же ID загрузили заново, и ее просмотр
+    // остается в сессии, даже если сессия не обращалась к истории со времени удаления
+    @Test
+    void tombstoneRemovesOnlyViewsBeforeRemove() {
+        for (String sessionId : List.of("client-1", "client-2")) {
+            historyManager.enterSession(sessionId);
+            historyManager.add(tasks.get(0));
+            historyManager.add(tasks.get(1));
+            historyManager.exitSession();
+        }
+        historyManager.remove(1);
+        Task reimported = new Task("Задача 1", "Загружена заново");
+        reimported.setId(1);
+        historyManager.enterSession("client-2");
+        historyManager.add(reimported);
+        historyManager.exitSession();
+        historyManager.remove(3);
+
+        historyManager.enterSession("client-1");
+        assertEquals(List.of(tasks.get(1)), historyManager.getHistory(), "Старый просмотр остался в истории");
+        historyManager.exitSession();
+        historyManager.enterSession("client-2");
+        assertEquals(List.of(tasks.get(1), reimported), historyManager.getHistory(),
+                "Просмотр задачи, загруженной заново, пропал из истории");
+        historyManager.add(tasks.get(2));
+        historyManager.remove(2);
+        assertEquals(List.of(reimported, tasks.get(2)), historyManager.getHistory(), "Не верная история сессии");
+        historyManager.exitSession();
+    }
+
+    // отметки удаления, которые проверили все сессии, не накапливаются
+    @Test
+    void shouldPruneCheckedTombstones() {
+        historyManager = new SessionHistoryManager(3, 4, Duration.ofMinutes(1), clock::get);
+        historyManager.enterSession("client-1");
+        historyManager.add(tasks.get(0));
+        for (int id = 1; id <= 5000; id++) {
+            historyManager.remove(id);
+            historyManager.getHistory();
+        }
+        assertTrue(historyManager.getHistory().isEmpty(), "Задача осталась в истории сессии");
+        historyManager.exitSession();
+        assertTrue(historyManager.getTombstonesCount() < 1024, "Отметки удаления не удаляются");
+    }
+
+    // бездействующие сессии удаляются при создании новой сессии
+    @Test
+    void shouldEvictIdleSessions() {
+        historyManager.enterSession("client-1");
+        historyManager.add(tasks.get(0));
+        historyManager.exitSession();
+        clock.addAndGet(500);
+        historyManager.enterSession("client-2");
+        historyManager.exitSession();
+        clock.addAndGet(600);
+        historyManager.enterSession("client-3");
+        historyManager.exitSession();
+        assertEquals(2, historyManager.getSessionsCount(), "Бездействующая сессия не удалена");
+
+        historyManager.enterSession("client-1");
+        assertTrue(historyManager.getHistory().isEmpty(), "История удаленной сессии сохранилась");
+        historyManager.exitSession();
+    }
+
+    // при превышении количества сессий удаляются самые давние
+    @Test
+    void shouldEvictLeastRecentlyUsedSessionsWhenLimitExceeded() {
+        for (int i = 1; i <= 4; i++) {
+            clock.incrementAndGet();
+            historyManager.enterSession("client-" + i);
+            historyManager.add(tasks.get(i));
+            historyManager.exitSession();
+        }
+        clock.incrementAndGet();
+        historyManager.enterSession("client-1"); // первая сессия снова используется
+        historyManager.exitSession();
+        clock.incrementAndGet();
+        historyManager.enterSession("client-5");
+        historyManager.exitSession();
+        assertEquals(3, historyManager.getSessionsCount(), "Не верное количество сессий после удаления");
+
+        historyManager.enterSession("client-1");
+        assertEquals(List.of(tasks.get(1)), historyManager.getHistory(), "Удалена недавно использованная сессия");
+        historyManager.exitSession();
+        historyManager.enterSession("client-2");
+        assertTrue(historyManager.getHistory().isEmpty(), "Самая давняя сессия не удалена");
+        historyManager.exitSession();
+    }
+
+    @Test
+    void shouldBeExceptionWhenLimitsAreNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionHistoryManager(0, 1, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new SessionHistoryManager(1, 0, Duration.ofMinutes(1)));
+    }
+}
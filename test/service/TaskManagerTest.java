@@ -6,12 +6,15 @@ import model.Epic;
 import model.Status;
 import model.Subtask;
 import model.Task;
+import model.TaskType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -109,12 +112,14 @@ public abstract class TaskManagerTest<T extends TaskManager> {
 
         subtask1.setStatus(Status.NEW);
         taskManager.updateSubtask(subtask1);
+        tmpEpic = taskManager.getEpicById(subtask1.getEpicId());
         assertEquals(Status.IN_PROGRESS, tmpEpic.getStatus(), "Не изменился статус Эпика " + "при смене статуса подзадачи");
 
         subtask1.setStatus(Status.NEW);
         taskManager.updateSubtask(subtask1);
         subtask2.setStatus(Status.NEW);
         taskManager.updateSubtask(subtask2);
+        tmpEpic = taskManager.getEpicById(subtask1.getEpicId());
         assertEquals(Status.NEW, tmpEpic.getStatus(), "Не изменился статус Эпика " + "при смене статуса подзадачи");
     }
 
@@ -323,4 +328,217 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         taskManager.addSubtask(subtask2);
         assertEquals(subtask2, taskManager.getPrioritizedTasks().getFirst());
     }
+
+    // версия менеджера растет при изменениях и не меняется при чтении и просмотрах
+    @Test
+    void versionIncreasesOnlyOnChanges() {
+        long version = taskManager.getVersion();
+        taskManager.getTaskById(task.getId());
+        taskManager.getTasks();
+        assertEquals(version, taskManager.getVersion(), "Версия изменилась при чтении!");
+
+        taskManager.addTask(new Task("Сварить борщ", "Найти рецепт борща"));
+        assertTrue(taskManager.getVersion() > version, "Версия не изменилась при добавлении!");
+        version = taskManager.getVersion();
+        subtask1.setStatus(Status.DONE);
+        taskManager.updateSubtask(subtask1);
+        assertTrue(taskManager.getVersion() > version, "Версия не изменилась при обновлении!");
+        version = taskManager.getVersion();
+        taskManager.deleteEpicById(epic.getId());
+        assertTrue(taskManager.getVersion() > version, "Версия не изменилась при удалении!");
+
+        // неудачное изменение версию не меняет
+        version = taskManager.getVersion();
+        assertThrows(NotFoundException.class, () -> taskManager.deleteTaskById(100));
+        assertThrows(NotFoundException.class, () -> taskManager.addSubtask(new Subtask(100, "Подзадача", "")));
+        assertEquals(version, taskManager.getVersion(), "Версия изменилась при неудачном изменении!");
+    }
+
+    // подписчик получает изменение раньше, чем версия менеджера станет версией этого изменения
+    @Test
+    void versionChangesAfterListeners() {
+        long version = taskManager.getVersion();
+        List<Long> versionsInListener = new ArrayList<>();
+        taskManager.addChangeListener(change -> versionsInListener.add(taskManager.getVersion()));
+        taskManager.addTask(new Task("Сварить борщ", "Найти рецепт борща"));
+        assertEquals(List.of(version), versionsInListener, "Версия изменилась до вызова подписчика!");
+        assertEquals(version + 1, taskManager.getVersion(), "Версия не изменилась после изменения!");
+    }
+
+    // пакет: эпик с подзадачами по ссылке на операцию, обновление и удаление за один вызов
+    @Test
+    void applyBatchWithEpicReference() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 5, 1, 10, 0);
+        Epic newEpic = new Epic("Ремонт", "Ремонт в ванной");
+        Subtask newSubtask1 = new Subtask(0, "Плитка", "Купить плитку");
+        newSubtask1.setStartTime(startTime);
+        newSubtask1.setDuration(Duration.ofMinutes(30));
+        Subtask newSubtask2 = new Subtask(0, "Краска", "Купить краску");
+        newSubtask2.setStartTime(startTime.plusHours(1));
+        newSubtask2.setDuration(Duration.ofMinutes(30));
+        Task updatedTask = new Task(task.getId(), "Почистить ковер", "Отвезти в химчистку", Status.DONE);
+
+        List<Integer> ids = taskManager.applyBatch(List.of(
+                BatchOperation.create(newEpic),
+                BatchOperation.create(newSubtask1, 0),
+                BatchOperation.create(newSubtask2, 0),
+                BatchOperation.update(updatedTask),
+                BatchOperation.delete(TaskType.SUBTASK, subtask1.getId())));
+
+        assertEquals(List.of(5, 6, 7, task.getId(), subtask1.getId()), ids, "Не верные ID операций пакета!");
+        assertEquals(2, taskManager.getEpicSubtasks(taskManager.getEpicById(5)).size(),
+                "Подзадачи не добавлены в эпик из пакета!");
+        assertEquals(startTime, taskManager.getEpicById(5).getStartTime(), "Не рассчитано время эпика!");
+        assertEquals(Status.DONE, taskManager.getTaskById(task.getId()).getStatus(), "Задача не обновлена!");
+        assertEquals(1, taskManager.getEpicSubtasks(epic).size(), "Подзадача не удалена!");
+        assertEquals(List.of(newSubtask1, newSubtask2), taskManager.getPrioritizedTasks(),
+                "Не верный список приоритетных задач!");
+    }
+
+    // пакет с ошибкой не меняет менеджер, даже если часть операций уже выполнена
+    @Test
+    void applyBatchRollbackWhenOperationFails() {
+        taskManager.getSubtaskById(subtask1.getId());
+        LocalDateTime startTime = LocalDateTime.of(2024, 5, 1, 10, 0);
+        Task task1 = new Task("Задача 1", "Описание 1", Status.NEW, startTime, Duration.ofMinutes(60));
+        Task task2 = new Task("Задача 2", "Описание 2", Status.NEW, startTime.plusMinutes(30), Duration.ofMinutes(5));
+        long version = taskManager.getVersion();
+
+        // пересечение по времени находится только после всех операций
+        taskValidateException = assertThrows(TaskValidateException.class, () -> taskManager.applyBatch(List.of(
+                BatchOperation.delete(TaskType.SUBTASK, subtask1.getId()),
+                BatchOperation.create(task1),
+                BatchOperation.create(task2))));
+        assertEquals(version, taskManager.getVersion(), "Версия изменилась после ошибки пакета!");
+        // операция с несуществующей задачей
+        notFoundException = assertThrows(NotFoundException.class, () -> taskManager.applyBatch(List.of(
+                BatchOperation.delete(TaskType.EPIC, epic.getId()),
+                BatchOperation.delete(TaskType.TASK, 100))));
+        assertTrue(notFoundException.getMessage().startsWith("Operation 1:"), "В ошибке нет номера операции!");
+
+        assertEquals(List.of(task), taskManager.getTasks(), "Изменились задачи после ошибки пакета!");
+        assertEquals(List.of(epic), taskManager.getEpics(), "Изменились эпики после ошибки пакета!");
+        assertEquals(2, taskManager.getSubtasks().size(), "Изменились подзадачи после ошибки пакета!");
+        assertEquals(2, taskManager.getEpicSubtasks(epic).size(), "Изменились подзадачи эпика после ошибки пакета!");
+        assertEquals(Status.IN_PROGRESS, epic.getStatus(), "Изменился статус эпика после ошибки пакета!");
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty(), "Изменился список приоритетных задач!");
+        assertEquals(List.of(subtask1), taskManager.getHistory(), "Изменилась история после ошибки пакета!");
+
+        Task task3 = new Task("Задача 3", "Описание 3");
+        taskManager.addTask(task3);
+        assertEquals(5, task3.getId(), "Счетчик ID не восстановлен после ошибки пакета!");
+    }
+
+    @Test
+    void changeListenerReceivesChangesAfterSuccess() {
+        List<TaskChange> changes = new ArrayList<>();
+        ChangeListener listener = changes::add;
+        taskManager.addChangeListener(listener);
+
+        Task task2 = new Task("Задача 2", "Описание 2");
+        taskManager.addTask(task2);
+        taskManager.deleteSubtaskById(subtask1.getId());
+        long version = taskManager.getVersion();
+        assertThrows(NotFoundException.class, () -> taskManager.deleteTaskById(100));
+        assertEquals(3, changes.size(), "Неверное количество изменений!");
+        assertEquals(ChangeType.ADD, changes.get(0).getChange(), "Неверный вид изменения!");
+        assertEquals(task2.getId(), changes.get(0).getId(), "Неверный ID изменения!");
+        assertEquals(TaskType.SUBTASK, changes.get(1).getType(), "Неверный тип задачи изменения!");
+        assertEquals(ChangeType.DELETE, changes.get(1).getChange(), "Неверный вид изменения!");
+        assertEquals(epic.getId(), changes.get(2).getId(), "Нет изменения эпика удаленной подзадачи!");
+        assertEquals(version, changes.get(2).getVersion(), "Неверная версия изменения!");
+
+        // изменения неудачного пакета не передаются, удачного - после всего пакета
+        changes.clear();
+        assertThrows(NotFoundException.class, () -> taskManager.applyBatch(List.of(
+                BatchOperation.delete(TaskType.TASK, task.getId()),
+                BatchOperation.delete(TaskType.TASK, 100))));
+        assertTrue(changes.isEmpty(), "Переданы изменения неудачного пакета!");
+        taskManager.applyBatch(List.of(BatchOperation.delete(TaskType.TASK, task.getId())));
+        assertEquals(1, changes.size(), "Не переданы изменения пакета!");
+
+        taskManager.removeChangeListener(listener);
+        taskManager.deleteTasks();
+        assertEquals(1, changes.size(), "Изменения переданы после отписки!");
+    }
+
+    @Test
+    void getChangesSinceVersion() {
+        String syncToken = taskManager.getSyncToken();
+        ChangeSet changeSet = taskManager.getChangesSince(syncToken);
+        assertFalse(changeSet.isResync(), "Лишний признак полной загрузки!");
+        assertTrue(changeSet.getTasks().isEmpty() && changeSet.getDeleted().isEmpty(), "Лишние изменения!");
+
+        Task task2 = new Task("Задача 2", "Описание 2");
+        taskManager.addTask(task2);
+        task.setStatus(Status.DONE);
+        taskManager.updateTask(task);
+        taskManager.updateTask(task);
+        taskManager.deleteSubtaskById(subtask1.getId());
+        changeSet = taskManager.getChangesSince(syncToken);
+        assertFalse(changeSet.isResync(), "Лишний признак полной загрузки!");
+        assertEquals(taskManager.getVersion(), changeSet.getVersion(), "Неверная версия изменений!");
+        assertEquals(taskManager.getSyncToken(), changeSet.getSyncToken(), "Неверный токен синхронизации!");
+        assertEquals(2, changeSet.getTasks().size(), "Задача должна попасть в изменения один раз!");
+        assertTrue(changeSet.getTasks().containsAll(List.of(task, task2)), "Нет измененных задач!");
+        assertEquals(List.of(epic), changeSet.getEpics(), "Нет эпика удаленной подзадачи!");
+        assertTrue(changeSet.getSubtasks().isEmpty(), "Удаленная подзадача в списке измененных!");
+        assertEquals(1, changeSet.getDeleted().size(), "Неверное количество удаленных задач!");
+        assertEquals(subtask1.getId(), changeSet.getDeleted().getFirst().getId(), "Неверный ID удаленной задачи!");
+
+        assertTrue(taskManager.getChangesSince(taskManager.getSyncToken()).getTasks().isEmpty(),
+                "Изменения после текущей версии!");
+        assertThrows(TaskValidateException.class, () -> taskManager.getChangesSince("1"));
+    }
+
+    @Test
+    void upsertTasksWithoutHistory() {
+        Task task2 = new Task("Задача 2", "Описание 2");
+        assertTrue(taskManager.upsertTask(task2), "Новая задача не добавлена!");
+        assertEquals(5, task2.getId(), "Неверный ID новой задачи!");
+        Task updatedTask = new Task(task.getId(), "Задача 1", "Описание 1", Status.DONE);
+        assertFalse(taskManager.upsertTask(updatedTask), "Существующая задача не обновлена!");
+        assertEquals(Status.DONE, taskManager.getTasks().getFirst().getStatus(), "Задача не обновилась!");
+
+        Epic updatedEpic = new Epic(epic.getId(), "Переезд", "Новое описание", Status.NEW);
+        updatedEpic.addSubtaskId(subtask1.getId());
+        updatedEpic.addSubtaskId(subtask2.getId());
+        assertFalse(taskManager.upsertEpic(updatedEpic), "Существующий эпик не обновлен!");
+        assertTrue(taskManager.upsertEpic(new Epic("Эпик 2", "Описание 2")), "Новый эпик не добавлен!");
+
+        Subtask updatedSubtask = new Subtask(subtask1.getId(), "Грузчики", "Найти", Status.DONE, epic.getId(),
+                null, null);
+        assertFalse(taskManager.upsertSubtask(updatedSubtask), "Существующая подзадача не обновлена!");
+        assertTrue(taskManager.upsertSubtask(new Subtask(epic, "Кот", "Поймать кота")), "Подзадача не добавлена!");
+        assertEquals(3, taskManager.getEpicSubtasks(updatedEpic).size(), "Неверное количество подзадач эпика!");
+
+        assertTrue(taskManager.getHistory().isEmpty(), "Добавление или обновление попало в историю просмотров!");
+        assertThrows(NotFoundException.class, () -> taskManager.upsertTask(null));
+    }
+
+    @Test
+    void findTasksByQuery() {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        Task task2 = new Task("Задача 2", "Описание 2", Status.DONE, start, Duration.ofMinutes(30));
+        taskManager.addTask(task2);
+        Subtask subtask3 = new Subtask(epic, "Кот", "Поймать кота", Status.DONE, start.plusDays(3),
+                Duration.ofMinutes(30));
+        taskManager.addSubtask(subtask3);
+
+        assertEquals(List.of(task2), taskManager.findTasks(new TaskQuery().withType(TaskType.TASK)
+                .withStatus(Status.DONE)), "Неверный отбор по типу и статусу!");
+        assertEquals(List.of(subtask3), taskManager.findTasks(new TaskQuery().withEpicId(epic.getId())
+                .withStatus(Status.DONE)), "Неверный отбор подзадач эпика!");
+        assertEquals(List.of(task2, subtask3), taskManager.findTasks(new TaskQuery()
+                .withStartTime(start, start.plusDays(7))), "Неверный отбор по интервалу времени!");
+        assertEquals(List.of(subtask3), taskManager.getPrioritizedTasks(new TaskQuery()
+                .withStartTime(start.plusMinutes(30), null)), "Начало интервала включается неверно!");
+        assertEquals(List.of(task2), taskManager.getPrioritizedTasks(new TaskQuery()
+                .withStartTime(null, start.plusDays(3))), "Конец интервала не должен включаться!");
+        assertEquals(List.of(epic), taskManager.findTasks(new TaskQuery().withType(TaskType.EPIC)
+                .withStartTime(start, null)), "Эпик не отобран по времени подзадач!");
+        assertTrue(taskManager.findTasks(new TaskQuery().withStatus(Status.NEW).withType(TaskType.SUBTASK))
+                .contains(subtask1), "Нет подзадачи со статусом NEW!");
+        assertThrows(TaskValidateException.class, () -> new TaskQuery().withStartTime(start.plusDays(1), start));
+    }
 }
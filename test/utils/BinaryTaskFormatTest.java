@@ -0,0 +1,65 @@
+package utils;
+
+import exception.TaskValidateException;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTaskFormatTest {
+
+    @Test
+    void writeAndReadTasks() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        Task task = new Task(1, "Задача", "Описание, \"в кавычках\"\nи с переносом", Status.DONE, start,
+                Duration.ofMinutes(15));
+        Task emptyTask = new Task(2, null, null, null, null, null);
+        Epic epic = new Epic(3, "Эпик", "Описание эпика", Status.IN_PROGRESS, start, Duration.ofMinutes(30),
+                start.plusMinutes(30));
+        epic.addSubtaskId(4);
+        Subtask subtask = new Subtask(4, "Подзадача", "", Status.NEW, 3, null, null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTaskWriter writer = new BinaryTaskWriter(out);
+        writer.write(Arrays.asList(task, emptyTask, epic, subtask, null));
+        writer.writeTask(epic);
+        writer.flush();
+
+        BinaryTaskReader reader = new BinaryTaskReader(new ByteArrayInputStream(out.toByteArray()));
+        List<Task> tasks = reader.readTasks();
+        assertEquals(Arrays.asList(task, emptyTask, epic, subtask, null), tasks, "Список задач не совпадает!");
+        assertEquals(task.getDescription(), tasks.get(0).getDescription(), "Описание не совпадает!");
+        assertEquals(task.getStatus(), tasks.get(0).getStatus(), "Статус не совпадает!");
+        assertEquals(task.getStartTime(), tasks.get(0).getStartTime(), "Время начала не совпадает!");
+        assertEquals(task.getDuration(), tasks.get(0).getDuration(), "Продолжительность не совпадает!");
+        assertNull(tasks.get(1).getName(), "Пустое поле прочитано неверно!");
+        assertNull(tasks.get(1).getStatus(), "Пустое поле прочитано неверно!");
+        assertEquals(3, ((Subtask) tasks.get(3)).getEpicId(), "ID эпика не совпадает!");
+        Epic readEpic = (Epic) reader.readTask();
+        assertEquals(epic.getEndTime(), readEpic.getEndTime(), "Время окончания эпика не совпадает!");
+        assertEquals(epic.getSubtasksId(), readEpic.getSubtasksId(), "Подзадачи эпика не совпадают!");
+        assertNull(reader.readTask(), "После конца потока должен быть null!");
+    }
+
+    @Test
+    void readWrongData() {
+        // неизвестный вид значения
+        assertThrows(TaskValidateException.class,
+                () -> new BinaryTaskReader(new ByteArrayInputStream(new byte[]{42})).readTask());
+        // поток обрывается внутри задачи
+        assertThrows(EOFException.class,
+                () -> new BinaryTaskReader(new ByteArrayInputStream(new byte[]{1, 0, 0})).readTask());
+    }
+}
@@ -0,0 +1,78 @@
+package utils;
+
+import model.Status;
+import model.Task;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Замер скорости записи и разбора файла CSV для полей без кавычек и с кавычками.
+ * Запуск: java utils.CsvBenchmark [количество задач]
+ */
+public class CsvBenchmark {
+    private static final int WARMUP_ROUNDS = 5; // прогревочные прогоны для JIT
+    private static final int MEASURE_ROUNDS = 10; // прогоны с замером
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        // простые поля идут быстрым путем, поля с запятыми и кавычками - через разбор по RFC 4180
+        run("без кавычек", createTasks(count, "Почистить ковер", "Отвезти в химчистку Ковер-33"));
+        run("с кавычками", createTasks(count, "Купить молоко, хлеб", "Магазин \"У дома\", второй этаж"));
+    }
+
+    private static List<Task> createTasks(int count, String name, String description) {
+        List<Task> tasks = new ArrayList<>(count);
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 1; i <= count; i++) {
+            tasks.add(new Task(i, name, description, Status.NEW, startTime.plusMinutes(10L * i),
+                    Duration.ofMinutes(5)));
+        }
+        return tasks;
+    }
+
+    private static void run(String title, List<Task> tasks) throws IOException {
+        String csv = write(tasks);
+        long writeTime = Long.MAX_VALUE;
+        long readTime = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURE_ROUNDS; round++) {
+            long start = System.nanoTime();
+            write(tasks);
+            long written = System.nanoTime();
+            int loaded = read(csv).size();
+            long read = System.nanoTime();
+            if (loaded != tasks.size()) throw new IllegalStateException("Загружены не все задачи!");
+            if (round >= WARMUP_ROUNDS) {
+                writeTime = Math.min(writeTime, written - start);
+                readTime = Math.min(readTime, read - written);
+            }
+        }
+        System.out.printf("%s: запись %d нс/задача, разбор %d нс/задача%n", title,
+                writeTime / tasks.size(), readTime / tasks.size());
+    }
+
+    private static String write(List<Task> tasks) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (CsvWriter csvWriter = new CsvWriter(stringWriter)) {
+            csvWriter.writeHeader();
+            for (Task task : tasks) {
+                csvWriter.writeTask(task);
+            }
+        }
+        return stringWriter.toString();
+    }
+
+    private static List<Task> read(String csv) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new StringReader(csv))) {
+            return FileCsvUtils.readTasks(reader, EnumSet.allOf(CsvField.class));
+        }
+    }
+}